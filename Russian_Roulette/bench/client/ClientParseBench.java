@@ -0,0 +1,36 @@
+package client;
+
+import server.Message;
+
+/**
+ * 클라이언트가 서버 방송을 반영하는 비용 (GameRoomFrame.handleServerLine → GameState.apply).
+ * Swing 없이 GameState만으로 측정한다. server.BenchMain에서 호출.
+ */
+public final class ClientParseBench {
+
+    public interface Runner { void run(String name, Runnable op) throws Exception; }
+
+    public static void runAll(Runner bench) throws Exception {
+        String[] lines = {
+                "TURN P2",
+                "AIM_UPDATE WHO=P2 TARGET=SELF",
+                "FIRE_RESOLVE RESULT=BLANK TARGET=SELF HP1=5 HP2=4 B_LEFT=2 K_LEFT=1 SHOT=3/6",
+                "RELOAD 0/6 B=3 K=3",
+                "CHAT alice: hi",
+        };
+        GameState text = new GameState(0, 0);
+        int[] k = new int[1];
+        bench.run("client.GameState.apply(line)", () -> text.apply(lines[k[0]++ % lines.length]));
+
+        Message[] msgs = {
+                Message.turn(2),
+                Message.aimUpdate(2, true),
+                Message.fireResolve(false, true, 5, 4, 2, 1, 3),
+                Message.reload(0, 3, 3),
+        };
+        GameState bin = new GameState(0, 0);
+        bench.run("client.GameState.apply(message)", () -> bin.apply(msgs[k[0]++ % msgs.length]));
+    }
+
+    private ClientParseBench() {}
+}
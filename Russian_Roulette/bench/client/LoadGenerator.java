@@ -0,0 +1,281 @@
+package client;
+
+import server.LoopbackTransport;
+import server.Metrics;
+import server.Protocol;
+import server.ServerCore;
+import server.TcpTransport;
+import server.Trace;
+import server.Transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GUI 없이 NetworkClient로 플레이어 N명을 흉내 내는 부하 생성기.
+ * 봇은 HELLO → (매칭) → READY → 자기 턴마다 AIM + FIRE → GAME_OVER를 반복하고,
+ * 판이 끝나면 다시 접속해 다음 매칭을 기다린다.
+ *
+ * 사용법: java -cp bin client.LoadGenerator [--host=127.0.0.1] [--port=7777] [--players=100]
+ *         [--duration=30] [--think-min=0] [--think-max=50] [--ramp=5] [--binary] [--local=NIO]
+ *   --local=MODE 이면 같은 프로세스에 ServerCore(BLOCKING|VIRTUAL|NIO|LOOPBACK)를 띄우고 거기에 붙는다.
+ *   LOOPBACK은 소켓 대신 LoopbackTransport 파이프라 커널 네트워크 없이 Protocol 전체를 돌린다.
+ *   --local이면 서버 쪽 구간(Trace span: 접속, 핸드셰이크, 매칭, READY 대기, 조준/발사, 쓰기)도 함께 출력한다.
+ *   --directory=host:port 이면 판마다 클러스터 디렉터리에 ROUTE를 물어 받은 노드로 접속한다 (노드별 접속 수를 마지막에 출력).
+ */
+public class LoadGenerator {
+    // 지연을 재는 메시지 종류: 보낸 요청 → 기다리는 응답
+    enum Kind {
+        MATCH("HELLO -> ENTER_ROOM"),
+        READY("READY -> GAME_START"), // 상대가 READY를 보낼 때까지 기다린 시간 포함
+        AIM("AIM -> AIM_UPDATE"),
+        FIRE("FIRE -> FIRE_RESOLVE");
+
+        final String label;
+        Kind(String label) { this.label = label; }
+    }
+
+    private final String host;
+    private final int port;
+    private final boolean binary;
+    private final int thinkMin, thinkMax;
+    private final boolean viaDirectory; // host:port가 디렉터리
+    private final Transport transport;
+    private final ConcurrentHashMap<String, LongAdder> perNode = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(2);
+    private final ExecutorService connector = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+
+    // ==== 통계 ====
+    private final Metrics.Histogram[] latency = new Metrics.Histogram[Kind.values().length]; // 마이크로초
+    private final LongAdder matches = new LongAdder();       // GAME_OVER까지 끝난 판 (방 기준)
+    private final LongAdder connectErrors = new LongAdder(); // 접속/핸드셰이크 실패
+    private final LongAdder dropped = new LongAdder();       // 판이 끝나기 전에 끊긴 연결
+    private final LongAdder roomErrors = new LongAdder();    // ROOM_ERROR 수신
+    private final AtomicInteger online = new AtomicInteger();
+
+    LoadGenerator(String host, int port, boolean binary, int thinkMin, int thinkMax, boolean viaDirectory, Transport transport) {
+        this.transport = transport;
+        this.viaDirectory = viaDirectory;
+        this.host = host;
+        this.port = port;
+        this.binary = binary;
+        this.thinkMin = thinkMin;
+        this.thinkMax = Math.max(thinkMin, thinkMax);
+        for (Kind k : Kind.values()) latency[k.ordinal()] = new Metrics.Histogram("us");
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = "127.0.0.1", local = null;
+        int port = 7777, players = 100, duration = 30, thinkMin = 0, thinkMax = 50, rampMs = 5;
+        boolean binary = false, viaDirectory = false;
+        for (String a : args) {
+            String v = a.contains("=") ? a.substring(a.indexOf('=') + 1) : "";
+            if (a.startsWith("--host="))           host = v;
+            else if (a.startsWith("--port="))      port = Integer.parseInt(v);
+            else if (a.startsWith("--players="))   players = Integer.parseInt(v);
+            else if (a.startsWith("--duration="))  duration = Integer.parseInt(v);
+            else if (a.startsWith("--think-min=")) thinkMin = Integer.parseInt(v);
+            else if (a.startsWith("--think-max=")) thinkMax = Integer.parseInt(v);
+            else if (a.startsWith("--ramp="))      rampMs = Integer.parseInt(v);
+            else if (a.equals("--binary"))         binary = true;
+            else if (a.startsWith("--local="))     local = v.toUpperCase(Locale.ROOT);
+            else if (a.startsWith("--directory=")) {
+                host = v.substring(0, v.lastIndexOf(':'));
+                port = Integer.parseInt(v.substring(v.lastIndexOf(':') + 1));
+                viaDirectory = true;
+            }
+            else { System.err.println("unknown option: " + a); System.exit(2); }
+        }
+
+        ServerCore core = null;
+        if (local != null) {
+            core = new ServerCore(s -> {});
+            Trace.enableSpans();
+            core.start(port, ServerCore.IoMode.valueOf(local));
+            host = "127.0.0.1";
+        }
+
+        LoadGenerator gen = new LoadGenerator(host, port, binary, thinkMin, thinkMax, viaDirectory,
+                "LOOPBACK".equals(local) ? LoopbackTransport.shared() : TcpTransport.INSTANCE);
+        System.out.printf("# %d players -> %s:%d (%s%s), think %d..%d ms, %d s%n", players, host, port,
+                binary ? "binary" : "text", local != null ? ", local " + local : "", thinkMin, thinkMax, duration);
+        gen.run(players, rampMs, duration);
+        if (core != null) {
+            core.stop();
+            System.out.printf("%-22s %10s %10s %10s %10s %10s%n", "server spans (ms)", "count", "p50", "p90", "p99", "max");
+            for (Trace.Kind k : Trace.Kind.values()) {
+                Metrics.Histogram h = k.histogram();
+                System.out.printf("%-22s %10d %10.2f %10.2f %10.2f %10.2f%n", k.label, h.count(),
+                        h.percentile(0.50) / 1e3, h.percentile(0.90) / 1e3, h.percentile(0.99) / 1e3, h.max() / 1e3);
+            }
+        }
+        System.exit(0);
+    }
+
+    void run(int players, int rampMs, int durationSec) throws InterruptedException {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+            int id = i;
+            timer.schedule(() -> connect(new Bot(id)), (long) i * rampMs, TimeUnit.MILLISECONDS);
+        }
+
+        long lastMatches = 0, lastT = t0;
+        for (int s = 1; s <= durationSec; s++) {
+            Thread.sleep(1000);
+            long now = System.nanoTime(), m = matches.sum();
+            System.out.printf("[%3ds] online=%d matches/s=%.1f total=%d errors: connect=%d dropped=%d room=%d%n",
+                    s, online.get(), (m - lastMatches) * 1e9 / (now - lastT), m,
+                    connectErrors.sum(), dropped.sum(), roomErrors.sum());
+            lastMatches = m;
+            lastT = now;
+        }
+        running = false;
+        timer.shutdownNow();
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("%n# matches=%d (%.1f/s)  errors: connect=%d dropped=%d room=%d%n",
+                matches.sum(), matches.sum() / secs, connectErrors.sum(), dropped.sum(), roomErrors.sum());
+        if (!perNode.isEmpty()) {
+            System.out.print("# connections per node:");
+            new TreeMap<>(perNode).forEach((node, n) -> System.out.print("  " + node + "=" + n.sum()));
+            System.out.println();
+        }
+        System.out.printf("%-22s %10s %10s %10s %10s %10s%n", "latency (ms)", "count", "p50", "p90", "p99", "max");
+        for (Kind k : Kind.values()) {
+            Metrics.Histogram l = latency[k.ordinal()];
+            System.out.printf("%-22s %10d %10.2f %10.2f %10.2f %10.2f%n", k.label, l.count(),
+                    l.percentile(0.50) / 1e3, l.percentile(0.90) / 1e3, l.percentile(0.99) / 1e3, l.max() / 1e3);
+        }
+        connector.shutdownNow();
+    }
+
+    private void connect(Bot bot) {
+        if (!running) return;
+        connector.execute(bot::connect);
+    }
+
+    private void later(Runnable r) {
+        if (!running) return; // 측정이 끝난 뒤에는 새 행동을 예약하지 않는다
+        int d = (thinkMax == 0) ? 0 : ThreadLocalRandom.current().nextInt(thinkMin, thinkMax + 1);
+        if (d == 0) r.run();
+        else schedule(r, d);
+    }
+
+    private void schedule(Runnable r, long delayMs) {
+        try { timer.schedule(r, delayMs, TimeUnit.MILLISECONDS); }
+        catch (RejectedExecutionException ignored) {} // 종료 중
+    }
+
+    // ==== 봇 1명 ====
+    private final class Bot {
+        private final int id;
+        private int generation = 0;
+
+        // 연결(판) 하나 동안의 상태. 수신 스레드에서만 바꾸고, 보내기는 timer 스레드에서도 일어난다
+        private volatile NetworkClient net;
+        private String name;
+        private GameState state;
+        private String myRole;
+        private volatile boolean finished;
+        private volatile long matchSent, readySent, aimSent, fireSent;
+
+        Bot(int id) { this.id = id; }
+
+        void connect() {
+            name = "bot" + id + "_" + (generation++);
+            state = null;
+            myRole = null;
+            finished = false;
+            readySent = aimSent = fireSent = 0;
+            net = new NetworkClient(this::onLine, transport);
+            net.setOnClosed(this::onClosed);
+            matchSent = System.nanoTime();
+            try {
+                if (viaDirectory) {
+                    InetSocketAddress node = NetworkClient.route(host, port);
+                    if (node == null) throw new IOException("no cluster node");
+                    perNode.computeIfAbsent(node.getHostString() + ":" + node.getPort(), k -> new LongAdder()).increment();
+                    net.connect(node.getHostString(), node.getPort(), name, binary);
+                } else {
+                    net.connect(host, port, name, binary);
+                }
+                online.incrementAndGet();
+            } catch (Exception e) {
+                connectErrors.increment();
+                if (running) schedule(() -> LoadGenerator.this.connect(this), 500);
+            }
+        }
+
+        private void onClosed() {
+            online.decrementAndGet();
+            if (!finished && running) dropped.increment();
+        }
+
+        private void onLine(String line) {
+            long now = System.nanoTime();
+            if (line.startsWith(Protocol.ENTER_ROOM)) {
+                record(Kind.MATCH, matchSent, now);
+                later(() -> { readySent = System.nanoTime(); net.send(Protocol.READY); });
+                return;
+            }
+            if (line.startsWith(Protocol.ROOM_ERROR)) {
+                roomErrors.increment();
+                return;
+            }
+            if (line.startsWith(Protocol.GAME_START)) {
+                record(Kind.READY, readySent, now);
+                myRole = line.contains(" P1=" + name + " ") ? "P1" : "P2";
+                state = new GameState(0, 0);
+                return;
+            }
+            GameState st = state;
+            if (st == null) return;
+
+            // 내가 보낸 요청에 대한 응답만 (상대 턴의 방송은 제외). 한 번 잰 요청은 0으로
+            if (line.startsWith(Protocol.AIM_UPDATE) && line.contains("WHO=" + myRole)) {
+                record(Kind.AIM, aimSent, now);
+                aimSent = 0;
+            } else if (line.startsWith(Protocol.FIRE_RESOLVE) && myRole.equals(st.currentTurn())) {
+                record(Kind.FIRE, fireSent, now); // 반영 전이므로 currentTurn = 쏜 사람
+                fireSent = 0;
+            }
+
+            if (st.apply(line) == GameState.NONE) return;
+
+            if (st.isGameOver()) {
+                finished = true;
+                if ("P1".equals(myRole)) matches.increment(); // 방 하나당 한 번
+                net.close();
+                if (running) LoadGenerator.this.connect(this); // 다음 판
+                return;
+            }
+            if (line.startsWith(Protocol.TURN) && myRole.equals(st.currentTurn())) {
+                later(this::takeTurn);
+            }
+        }
+
+        private void takeTurn() {
+            boolean self = ThreadLocalRandom.current().nextInt(4) == 0; // 가끔 자기 자신을 조준
+            aimSent = System.nanoTime();
+            net.send(Protocol.AIM + (self ? " SELF" : " ENEMY"));
+            later(() -> { fireSent = System.nanoTime(); net.send(Protocol.FIRE); });
+        }
+
+        private void record(Kind k, long sentAt, long now) {
+            if (sentAt != 0) latency[k.ordinal()].record((now - sentAt) / 1_000);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package server;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 작은 마이크로벤치마크 하니스 (JMH 흉내).
+ * 빌드 도구가 없는 프로젝트라 JMH 대신 워밍업 → 측정 반복 → ops/s, ns/op, B/op을 출력한다.
+ * 결과값은 sink()에 넣어 JIT가 계산을 지우지 못하게 한다.
+ */
+final class Bench {
+    /** 측정할 작업 1회 (스레드마다 따로 만든 상태로 호출된다) */
+    interface Op { void run() throws Exception; }
+    interface OpFactory { Op create(int thread) throws Exception; }
+
+    static int warmupIters  = 3;
+    static int measureIters = 5;
+    static long iterMillis  = 1000;
+
+    private static volatile long sink;
+
+    static void sink(long v) { sink += v; }
+    static void sink(Object o) { sink += (o == null) ? 0 : System.identityHashCode(o) & 1; }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static void run(String name, Op op) throws Exception {
+        run(name, 1, t -> op);
+    }
+
+    /** threads개 스레드가 동시에 op를 반복한다 (경합 측정) */
+    static void run(String name, int threads, OpFactory factory) throws Exception {
+        run(name, threads, factory, null);
+    }
+
+    /**
+     * op 호출 수 대신 work가 늘어난 만큼을 연산 수로 센다.
+     * op가 명령을 넣기만 하고 실제 처리는 다른 스레드(Room 액터)에서 일어날 때, 처리된 것만 세려고.
+     */
+    static void run(String name, int threads, OpFactory factory, LongSupplier work) throws Exception {
+        Op[] ops = new Op[threads];
+        for (int i = 0; i < threads; i++) ops[i] = factory.create(i);
+
+        for (int i = 0; i < warmupIters; i++) iteration(ops, work);
+
+        double best = 0, sum = 0, bytesPerOp = 0;
+        for (int i = 0; i < measureIters; i++) {
+            long[] r = iteration(ops, work);
+            double opsPerSec = r[0] * 1e9 / r[1];
+            sum += opsPerSec;
+            best = Math.max(best, opsPerSec);
+            bytesPerOp = (double) r[2] / Math.max(1, r[0]);
+        }
+        double avg = sum / measureIters;
+        System.out.printf("%-40s %2d thr %,14.0f ops/s (best %,14.0f) %,10.1f ns/op %,8.1f B/op%n",
+                name, threads, avg, best, threads * 1e9 / avg, bytesPerOp);
+    }
+
+    // {총 연산 수, 경과 ns, 할당 바이트}
+    private static long[] iteration(Op[] ops, LongSupplier work) throws Exception {
+        int n = ops.length;
+        AtomicLong count = new AtomicLong();
+        AtomicLong allocated = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1), done = new CountDownLatch(n);
+        Exception[] error = new Exception[1];
+        long[] deadline = new long[1];
+
+        for (int i = 0; i < n; i++) {
+            Op op = ops[i];
+            Thread t = new Thread(() -> {
+                long c = 0, a0 = THREADS.getCurrentThreadAllocatedBytes();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        for (int k = 0; k < 64; k++) op.run(); // nanoTime 호출 비용을 줄이려고 64회씩
+                        c += 64;
+                    }
+                } catch (Exception e) {
+                    error[0] = e;
+                } finally {
+                    allocated.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - a0);
+                    count.addAndGet(c);
+                    done.countDown();
+                }
+            }, "Bench-" + i);
+            t.start();
+        }
+        long w0 = (work == null) ? 0 : work.getAsLong();
+        long t0 = System.nanoTime();
+        deadline[0] = t0 + iterMillis * 1_000_000L;
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - t0;
+        if (error[0] != null) throw error[0];
+        long processed = (work == null) ? count.get() : work.getAsLong() - w0;
+        return new long[] { processed, elapsed, allocated.get() };
+    }
+
+    /** 바이트를 세기만 하는 송신 대상 (소켓 없는 ClientHandler용) */
+    static final class CountingSink implements Outbound.Sink {
+        long bytes;
+        @Override public void write(byte[] data, int len) { bytes += len; }
+        @Override public long backlogBytes() { return 0; }
+        @Override public void close() {}
+    }
+
+    private Bench() {}
+}
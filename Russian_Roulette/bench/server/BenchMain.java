@@ -0,0 +1,30 @@
+package server;
+
+import client.ClientParseBench;
+
+/**
+ * 벤치마크 실행 진입점.
+ * 사용법: java -cp bin server.BenchMain [all|room|codec|client|loopback|check] [threads] [iterMillis]
+ * 성능 관련 변경 전후로 같은 옵션으로 돌려 숫자를 비교한다.
+ */
+public class BenchMain {
+    public static void main(String[] args) throws Exception {
+        String suite = args.length > 0 ? args[0] : "all";
+        int threads  = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        if (args.length > 2) Bench.iterMillis = Long.parseLong(args[2]);
+
+        System.out.println("# JDK " + System.getProperty("java.version") + ", " + Runtime.getRuntime().availableProcessors()
+                + " cpus, warmup " + Bench.warmupIters + " x " + Bench.iterMillis + " ms, measure " + Bench.measureIters + " x " + Bench.iterMillis + " ms");
+
+        boolean all = suite.equals("all");
+        if (all || suite.equals("codec"))    CodecBench.runAll();
+        if (all || suite.equals("client"))   ClientParseBench.runAll((name, op) -> Bench.run(name, op::run));
+        if (all || suite.equals("room"))     RoomBench.runAll(threads);
+        if (all || suite.equals("check")) {  // 숫자가 아니라 동작 확인 (틀리면 예외)
+            LoopbackBench.playMatch(19770);
+            LoopbackBench.stopWithClients(19771);
+        }
+        if (all || suite.equals("loopback")) LoopbackBench.runAll(19777, 20_000);
+        System.exit(0); // 서버 스레드(AcceptLoop, Matchmaker 등)가 남아 있어도 종료
+    }
+}
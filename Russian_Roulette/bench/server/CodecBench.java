@@ -0,0 +1,52 @@
+package server;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 메시지 인코딩/디코딩 벤치마크 (Room이 방송하는 줄 만들기, 서버가 받은 줄 해석하기).
+ */
+final class CodecBench {
+
+    static void runAll() throws Exception {
+        // Room.applyFire가 만드는 FIRE_RESOLVE (값 조합별 공유 인스턴스 + 미리 인코딩된 바이트)
+        Bench.run("msg.fireResolve.lineBytes", () -> {
+            int i = (int) (System.nanoTime() & 3);
+            Bench.sink(Message.fireResolve(true, false, 5 - i, 4, 2, 1, 3).lineBytes().length);
+        });
+        Bench.run("msg.fireResolve.frame", () -> {
+            int i = (int) (System.nanoTime() & 3);
+            Bench.sink(Message.fireResolve(false, true, 5, 4 - i, 1, 2, 3).frame().length);
+        });
+        // 공유되지 않는 텍스트 줄 (Room.startGame의 GAME_START처럼 문자열을 이어 붙이는 경우)
+        Bench.run("msg.text(GAME_START).lineBytes", () -> {
+            long i = System.nanoTime() & 3;
+            Bench.sink(Message.text(Protocol.GAME_START + " P1=alice P2=bob B=" + i + " K=" + (6 - i)).lineBytes().length);
+        });
+
+        // 서버 수신: 바이트 → LineCodec → 명령 판별 (split/substring 없음)
+        byte[][] lines = {
+                bytes("READY"), bytes("AIM SELF"), bytes("AIM ENEMY"), bytes("FIRE"), bytes("CHAT 안녕하세요"),
+        };
+        LineCodec codec = new LineCodec();
+        int[] k = new int[1];
+        Bench.run("codec.decode+command", () -> {
+            byte[] b = lines[k[0]++ % lines.length];
+            Bench.sink(codec.set(b, 0, b.length).command());
+        });
+        // 같은 일을 String + startsWith 사슬로 했을 때 (이전 방식 비교용)
+        Bench.run("string.decode+startsWith (old)", () -> {
+            byte[] b = lines[k[0]++ % lines.length];
+            String s = new String(b, StandardCharsets.UTF_8);
+            int cmd = s.startsWith("CHAT ") ? 1 : s.equals("READY") ? 2 : s.startsWith("AIM ") ? ("SELF".equalsIgnoreCase(s.substring(4).trim()) ? 3 : 4) : s.equals("FIRE") ? 5 : 0;
+            Bench.sink(cmd);
+        });
+
+        // 바이너리 프레임 디코딩 (공유 인스턴스를 돌려준다)
+        byte[] frame = Message.fireResolve(true, true, 3, 2, 1, 1, 4).frame();
+        Bench.run("msg.decode(frame)", () -> Bench.sink(Message.decode(frame, 2, frame.length - 2)));
+    }
+
+    private static byte[] bytes(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    private CodecBench() {}
+}
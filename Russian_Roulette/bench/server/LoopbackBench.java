@@ -0,0 +1,183 @@
+package server;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 같은 프로세스 안에서 ServerCore를 띄우고 왕복 지연을 잰다.
+ * BLOCKING/VIRTUAL/NIO는 실제 TCP 소켓, LOOPBACK은 메모리 파이프 (커널 네트워크를 뺀 나머지 비용).
+ * 두 클라이언트가 매칭 → READY → 게임 시작 후, alice가 "AIM x"를 보내고 AIM_UPDATE가 돌아올 때까지.
+ * playMatch()는 LOOPBACK으로 한 판을 GAME_OVER까지 두어 프로토콜 전체가 도는지 확인한다.
+ * stopWithClients()는 NIO 서버를 접속이 남은 채로 멈춰 연결이 모두 닫히는지 확인한다.
+ */
+final class LoopbackBench {
+
+    static void runAll(int basePort, int rounds) throws Exception {
+        int port = basePort;
+        for (ServerCore.IoMode mode : ServerCore.IoMode.values()) {
+            roundTrip(mode, port++, rounds);
+        }
+    }
+
+    private static void roundTrip(ServerCore.IoMode mode, int port, int rounds) throws Exception {
+        ServerCore core = new ServerCore(s -> {});
+        core.start(port, mode);
+        Transport t = (mode == ServerCore.IoMode.LOOPBACK) ? LoopbackTransport.shared() : TcpTransport.INSTANCE;
+        try (Transport.Link s1 = t.connect("127.0.0.1", port); Transport.Link s2 = t.connect("127.0.0.1", port)) {
+            BufferedReader in1 = reader(s1), in2 = reader(s2);
+            Writer out1 = writer(s1), out2 = writer(s2);
+
+            expect(in1, Protocol.HELLO);
+            send(out1, "alice");
+            expect(in2, Protocol.HELLO);
+            send(out2, "bob");
+            // 매치메이커는 먼저 등록된 쪽을 P1으로 두므로 alice가 P2일 수도 있다
+            String who = expect(in1, Protocol.ENTER_ROOM).contains("P1=alice") ? "P1" : "P2";
+            expect(in2, Protocol.ENTER_ROOM);
+            send(out1, Protocol.READY);
+            send(out2, Protocol.READY);
+            expect(in1, Protocol.GAME_START);
+
+            // P2 쪽 수신 버퍼가 차지 않도록 계속 비워 준다
+            Thread drain = new Thread(() -> {
+                try { while (in2.readLine() != null) { } } catch (IOException ignored) {}
+            }, "LoopbackDrain");
+            drain.setDaemon(true);
+            drain.start();
+
+            long[] lat = new long[rounds];
+            int warmup = Math.min(1000, rounds);
+            for (int i = -warmup; i < rounds; i++) {
+                boolean self = (i & 1) == 0;
+                long t0 = System.nanoTime();
+                send(out1, Protocol.AIM + (self ? " SELF" : " ENEMY"));
+                expect(in1, Protocol.AIM_UPDATE + " WHO=" + who);
+                if (i >= 0) lat[i] = System.nanoTime() - t0;
+            }
+            Arrays.sort(lat);
+            long total = 0;
+            for (long l : lat) total += l;
+            System.out.printf("%-40s %,10d rounds  avg %,8.1f us  p50 %,8.1f us  p99 %,8.1f us  max %,8.1f us%n",
+                    "loopback.aim roundtrip (" + mode + ")", rounds,
+                    total / 1e3 / rounds, pct(lat, 0.50), pct(lat, 0.99), lat[rounds - 1] / 1e3);
+        } finally {
+            core.stop();
+        }
+    }
+
+    /**
+     * LOOPBACK으로 한 판을 끝까지 둔다: 핸드셰이크 → READY → 턴마다 AIM, FIRE → GAME_OVER.
+     * 두 연결이 같은 GAME_OVER를 받지 못하거나 AIM/FIRE가 처리되지 않았으면 IllegalStateException.
+     */
+    static void playMatch(int port) throws Exception {
+        ServerCore core = new ServerCore(s -> {});
+        core.start(port, ServerCore.IoMode.LOOPBACK);
+        Transport t = LoopbackTransport.shared();
+        try (Transport.Link s1 = t.connect("local", port); Transport.Link s2 = t.connect("local", port)) {
+            BufferedReader in1 = reader(s1), in2 = reader(s2);
+            Writer out1 = writer(s1), out2 = writer(s2);
+
+            expect(in1, Protocol.HELLO);
+            send(out1, "alice");
+            expect(in2, Protocol.HELLO);
+            send(out2, "bob");
+            String who = expect(in1, Protocol.ENTER_ROOM).contains("P1=alice") ? "P1" : "P2";
+            expect(in2, Protocol.ENTER_ROOM);
+            send(out1, Protocol.READY);
+            send(out2, Protocol.READY);
+            expect(in1, Protocol.GAME_START);
+            expect(in2, Protocol.GAME_START);
+
+            // bob은 GAME_OVER까지 읽기만 한다 (수신 버퍼가 차지 않도록)
+            String[] bobOver = new String[1];
+            Thread drain = new Thread(() -> {
+                try { bobOver[0] = expect(in2, Protocol.GAME_OVER); } catch (IOException ignored) {}
+            }, "LoopbackDrain");
+            drain.setDaemon(true);
+            drain.start();
+
+            // alice가 받는 방송을 따라가며 턴인 쪽이 조준을 바꾸고 쏜다
+            int aims = 0, shots = 0, turns = 0;
+            String line;
+            while ((line = in1.readLine()) != null && !line.startsWith(Protocol.GAME_OVER)) {
+                if (line.startsWith(Protocol.AIM_UPDATE)) aims++;
+                else if (line.startsWith(Protocol.FIRE_RESOLVE)) shots++;
+                else if (line.startsWith(Protocol.TURN + " ")) {
+                    if (++turns > 1000) throw new IllegalStateException("match did not end after 1000 turns");
+                    Writer out = line.endsWith(who) ? out1 : out2;
+                    send(out, Protocol.AIM + ((turns & 1) == 0 ? " SELF" : " ENEMY"));
+                    send(out, Protocol.FIRE);
+                }
+            }
+            if (line == null) throw new EOFException("connection closed while waiting for " + Protocol.GAME_OVER);
+            drain.join(5000);
+            // 첫 TURN 뒤의 초기 AIM_UPDATE 2줄 말고도 보낸 AIM이 방송되어야 한다
+            if (aims <= 2 || shots == 0 || !line.equals(bobOver[0])) {
+                throw new IllegalStateException("bad match: aims=" + aims + " shots=" + shots + " alice=" + line + " bob=" + bobOver[0]);
+            }
+            System.out.printf("%-40s %s after %d shots%n", "loopback.match (LOOPBACK)", line, shots);
+        } finally {
+            core.stop();
+        }
+    }
+
+    /**
+     * NIO 서버에 닉네임까지 보낸 연결 하나와 HELLO만 받은 연결 하나를 남겨 두고 stop()한다.
+     * 두 클라이언트 모두 EOF를 받고 conn.closed가 2 늘어야 한다 (리액터가 연결을 닫는 경로를 탔다). 아니면 IllegalStateException.
+     */
+    static void stopWithClients(int port) throws Exception {
+        ServerCore core = new ServerCore(s -> {});
+        core.start(port, ServerCore.IoMode.NIO);
+        try (Transport.Link s1 = TcpTransport.INSTANCE.connect("127.0.0.1", port);
+             Transport.Link s2 = TcpTransport.INSTANCE.connect("127.0.0.1", port)) {
+            BufferedReader in1 = reader(s1), in2 = reader(s2);
+            expect(in1, Protocol.HELLO);
+            send(writer(s1), "alice"); // 매칭 대기열에 들어간 채로
+            expect(in2, Protocol.HELLO);
+            expect(in1, Protocol.SESSION); // 핸드셰이크가 서버에서 끝났다
+
+            long closed0 = Metrics.CONN_CLOSED.get();
+            core.stop();
+            // 닫히지 않았으면 읽기 제한 시간에 SocketTimeoutException
+            s1.setReadTimeout(5000);
+            s2.setReadTimeout(5000);
+            while (in1.readLine() != null) { }
+            while (in2.readLine() != null) { }
+            long closed = Metrics.CONN_CLOSED.get() - closed0;
+            if (closed != 2) throw new IllegalStateException("conn.closed +" + closed + " after stop, expected +2");
+            System.out.printf("%-40s both clients saw EOF, conn.closed +%d%n", "nio.stop with clients (NIO)", closed);
+        } finally {
+            core.stop();
+        }
+    }
+
+    private static double pct(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e3;
+    }
+
+    private static BufferedReader reader(Transport.Link s) throws IOException {
+        return new BufferedReader(new InputStreamReader(s.in(), StandardCharsets.UTF_8));
+    }
+
+    private static Writer writer(Transport.Link s) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(s.out(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    // prefix로 시작하는 줄이 올 때까지 읽는다
+    private static String expect(BufferedReader in, String prefix) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith(prefix)) return line;
+        }
+        throw new EOFException("connection closed while waiting for " + prefix);
+    }
+
+    private LoopbackBench() {}
+}
@@ -0,0 +1,168 @@
+package server;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Room 게임 로직 벤치마크.
+ * 소켓 없는 ClientHandler(CountingSink)로 방을 만들어 네트워크 비용 없이 측정한다.
+ */
+final class RoomBench {
+
+    static void runAll(int threads) throws Exception {
+        // 방마다 스케줄러 대신 호출 스레드에서 바로 실행 → 순수 게임 로직 + 인코딩 비용
+        RoomRegistry inline = new RoomRegistry(s -> {}, Runnable::run);
+
+        Bench.run("room.randomizeCylinder", 1, t -> {
+            Room r = inline.create(player("a"), player("b"));
+            return r::randomizeCylinder;
+        });
+
+        for (int n : new int[] { 1, threads }) {
+            // 한 판 전체: READY x2 → 게임이 끝날 때까지 FIRE (스레드마다 다른 방, 레지스트리는 공유)
+            Bench.run("room.fullGame (inline actor)", n, t -> () -> playOneGame(inline));
+            // 봇 둘이 끝까지 (READY, 표 조회, AIM/FIRE가 모두 메일박스를 거친다) → 서버 하나가 감당하는 봇 판 수
+            Bench.run("room.fullGame (bot vs bot, inline)", n, t -> () -> playBotGame(inline));
+            // 조준 변경 1회 (스레드마다 자기 방)
+            Bench.run("room.onAim (own room, inline)", n, t -> {
+                Game g = readyGame(inline);
+                boolean[] self = new boolean[1];
+                return () -> g.room.onAim(g.p1, self[0] = !self[0]);
+            });
+        }
+
+        runShared(threads);
+    }
+
+    // ==== 방 하나에 여러 스레드 (메일박스) ====
+
+    // 메일박스에 쌓아 둘 명령 수. 스레드 수만큼 더 들어와도 MAILBOX_LIMIT을 넘지 않게 잡는다
+    private static final int WINDOW = Room.MAILBOX_LIMIT / 2;
+
+    /**
+     * 여러 스레드가 방 하나의 메일박스에 동시에 명령을 넣는다 (실제 스케줄러).
+     * 넣은 수가 아니라 액터가 처리해 방송한 수 (AIM_UPDATE, FIRE_RESOLVE)를 센다.
+     * 메일박스가 WINDOW를 넘으면 넣지 않고 기다려 버려지는 명령이 없게 하고, 게임이 끝나면 새 방으로 바꿔 진행 중인 방만 친다.
+     */
+    private static void runShared(int threads) throws Exception {
+        if (threads > Room.MAILBOX_LIMIT - WINDOW) throw new IllegalArgumentException("threads > " + (Room.MAILBOX_LIMIT - WINDOW));
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        Shared shared = new Shared(new RoomRegistry(s -> {}, pool));
+
+        Bench.run("room.onAim (shared room, mailbox)", threads, t -> {
+            boolean[] self = new boolean[1];
+            return () -> {
+                Table g = shared.table();
+                g.room.onAim((t % 2 == 0) ? g.p1 : g.p2, self[0] = !self[0]);
+            };
+        }, shared.aims::sum);
+        // 지금 턴인 쪽으로 쏜다. 턴이 막 넘어간 사이에 들어간 FIRE는 무시되어 세지 않는다
+        Bench.run("room.onFire (shared room, mailbox)", threads, t -> () -> {
+            Table g = shared.table();
+            g.room.onFire(g.turn == 2 ? g.p2 : g.p1);
+        }, shared.shots::sum);
+
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        if (shared.games.sum() == 0) throw new IllegalStateException("shared room never finished a game");
+    }
+
+    /** 벤치 스레드들이 같이 치는 방. 게임이 끝나면 관찰자가 다음 방으로 바꾼다 */
+    private static final class Shared {
+        final RoomRegistry registry;
+        final LongAdder aims = new LongAdder(), shots = new LongAdder(), games = new LongAdder();
+        private volatile Table current;
+
+        Shared(RoomRegistry registry) {
+            this.registry = registry;
+            this.current = new Table(this);
+        }
+
+        // 메일박스가 WINDOW 아래로 내려갈 때까지 기다렸다가 지금 방을 돌려준다
+        Table table() {
+            Table g;
+            while ((g = current).room.pendingCommands() > WINDOW) Thread.onSpinWait();
+            return g;
+        }
+
+        // 액터 안 (GAME_OVER 방송 중)에서 불린다
+        void next() {
+            games.increment();
+            current = new Table(this);
+        }
+    }
+
+    private static final class Table {
+        final Room room;
+        final ClientHandler p1, p2;
+        volatile int turn; // 마지막 TURN 방송 (액터가 쓰고 벤치 스레드가 읽는다)
+
+        Table(Shared shared) {
+            p1 = new Watcher(shared, true);
+            p2 = new Watcher(shared, false);
+            room = shared.registry.create(p1, p2);
+            room.onReady(p1);
+            room.onReady(p2);
+        }
+
+        /** 방송을 보고 처리된 명령을 센다. 같은 방송이 두 플레이어에게 가므로 P1 쪽에서만 */
+        private final class Watcher extends ClientHandler {
+            private final Shared shared;
+            private final boolean counts;
+
+            Watcher(Shared shared, boolean counts) {
+                super(new Bench.CountingSink(), counts ? "a" : "b", false);
+                this.shared = shared;
+                this.counts = counts;
+            }
+
+            @Override
+            void queue(Message m) {
+                if (!counts || m.isText()) return;
+                switch (m.op()) {
+                    case Protocol.OP_AIM_UPDATE   -> shared.aims.increment();
+                    case Protocol.OP_FIRE_RESOLVE -> shared.shots.increment();
+                    case Protocol.OP_TURN         -> turn = m.arg(0);
+                    case Protocol.OP_GAME_OVER    -> shared.next();
+                    default -> {}
+                }
+            }
+        }
+    }
+
+    static ClientHandler player(String name) {
+        return new ClientHandler(new Bench.CountingSink(), name, false);
+    }
+
+    private record Game(Room room, ClientHandler p1, ClientHandler p2) {}
+
+    private static Game readyGame(RoomRegistry reg) {
+        ClientHandler a = player("a"), b = player("b");
+        Room r = reg.create(a, b);
+        r.onReady(a);
+        r.onReady(b);
+        return new Game(r, a, b);
+    }
+
+    private static void playOneGame(RoomRegistry reg) {
+        ClientHandler a = player("a"), b = player("b");
+        Room r = reg.create(a, b);
+        r.onReady(a);
+        r.onReady(b);
+        // 차례가 아닌 쪽의 FIRE는 무시되므로 번갈아 보낸다
+        for (int i = 0; i < 1000 && !r.isFinished(); i++) {
+            r.onFire((i & 1) == 0 ? a : b);
+        }
+        Bench.sink(r.getId());
+    }
+
+    private static void playBotGame(RoomRegistry reg) {
+        Room r = reg.create(new BotPlayer("botA", 0), new BotPlayer("botB", 0));
+        r.announceCreatedAndReady(); // 이후는 봇들이 알아서 GAME_OVER까지
+        if (!r.isFinished()) throw new IllegalStateException("bot game did not finish");
+        Bench.sink(r.getId());
+    }
+
+    private RoomBench() {}
+}
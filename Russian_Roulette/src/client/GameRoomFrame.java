@@ -1,5 +1,6 @@
 package client;
 
+import server.Message;
 import server.Protocol;
 
 import javax.swing.*;
@@ -25,19 +26,7 @@ public class GameRoomFrame extends JFrame {
     private String currentAim = "ENEMY"; // SELF | ENEMY (내 조준 상태)
 
     // ===== 서버 방송 상태(표시용) =====
-    private int hp1 = 5;
-    private int hp2 = 5;
-    private static final int MAX_HP = 5;
-    private String currentTurn = "P1"; // "P1" | "P2"
-    private int shotIndex = 0;         // 0~6
-    private int bulletsLeft = 0;       // 남은 실탄 수
-    private int blanksLeft  = 0;       // 남은 공탄 수
-    private String gameOverBanner = null;
-
-    // === [Req 9] 플레이어별 조준 상태 ===
-    private String p1Aim = "ENEMY";
-    private String p2Aim = "ENEMY";
-    // === [Req 9] 끝 ===
+    private final GameState state;
 
 
     // ===== 총 회전(애니메이션) =====
@@ -54,8 +43,7 @@ public class GameRoomFrame extends JFrame {
         this.myRole = myName.equals(p1Name) ? "P1" : "P2";
 
         // === [Req 3-3] 생성 시점에서 초기 총알 상태 설정 ===
-        this.bulletsLeft = initialBullets;
-        this.blanksLeft = initialBlanks;
+        this.state = new GameState(initialBullets, initialBlanks);
         // === [Req 3-3] 끝 ===
 
         setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
@@ -106,6 +94,40 @@ public class GameRoomFrame extends JFrame {
         setupKeyBindings();
         installGlobalKeyDispatcher();
         net.setOnLine(getLineConsumer());
+        net.setOnMessage(getMessageConsumer()); // 바이너리 모드일 때만 호출됨
+        net.setOnClosed(new Runnable() {
+            @Override public void run() { SwingUtilities.invokeLater(GameRoomFrame.this::onConnectionLost); }
+        });
+    }
+
+    // ===== 재접속 =====
+    private static final int RESUME_TRIES = 3;
+
+    // 게임 중에 연결이 끊기면 같은 자리로 다시 접속해 놓친 상태를 받는다 (EDT)
+    private void onConnectionLost() {
+        if (!isDisplayable() || state.isGameOver()) return;
+        final int seq = state.seq();
+        Thread.ofVirtual().name("ClientResume").start(new Runnable() {
+            @Override public void run() {
+                for (int i = 1; i <= RESUME_TRIES; i++) {
+                    try {
+                        Thread.sleep(500L * i);
+                        if (!net.resume(seq)) break; // 세션이 없음 (서버가 거절함)
+                        return;
+                    } catch (java.io.IOException e) {
+                        // 서버가 아직 안 받음: 다시 시도
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override public void run() {
+                        if (isDisplayable()) JOptionPane.showMessageDialog(GameRoomFrame.this,
+                                "서버와의 연결이 끊겼습니다.", "연결 끊김", JOptionPane.WARNING_MESSAGE);
+                    }
+                });
+            }
+        });
     }
 
     private void showKeyHelp() {
@@ -131,6 +153,21 @@ public class GameRoomFrame extends JFrame {
         };
     }
 
+    // 바이너리 모드: 압축 메시지는 문자열 파싱 없이 필드를 바로 반영
+    public Consumer<Message> getMessageConsumer() {
+        return new Consumer<Message>() {
+            @Override public void accept(Message m) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override public void run() { handleServerMessage(m); }
+                });
+            }
+        };
+    }
+
+    private void handleServerMessage(Message m) {
+        onStateChanged(state.apply(m));
+    }
+
     private void handleServerLine(String line) {
         if (line == null) return;
 
@@ -139,53 +176,8 @@ public class GameRoomFrame extends JFrame {
             return;
         }
 
-        if (line.startsWith(Protocol.TURN + " ")) {
-            String who = line.substring((Protocol.TURN + " ").length()).trim();
-            if (who.equals("P1") || who.equals("P2")) currentTurn = who;
-            updateGunAngleForCurrentTurn(); 
-            canvas.repaint();
-            return;
-        }
-        
-        if (line.startsWith(Protocol.AIM_UPDATE + " ")) {
-            String who = "P_UNKNOWN";
-            String target = "ENEMY";
-            String[] sp = line.split("\\s+");
-            for (int i = 0; i < sp.length; i++) {
-                if (sp[i].startsWith("WHO=")) who = sp[i].substring(4);
-                else if (sp[i].startsWith("TARGET=")) target = sp[i].substring(7);
-            }
-            
-            if ("P1".equals(who)) p1Aim = target;
-            else if ("P2".equals(who)) p2Aim = target;
-
-            updateGunAngleForCurrentTurn();
-            return;
-        }
-
-
-        if (line.startsWith(Protocol.RELOAD + " ")) {
-            parseReload(line);
-            canvas.repaint();
-            return;
-        }
-
-        if (line.startsWith(Protocol.FIRE_RESOLVE + " ")) {
-            parseFireResolve(line);
-            canvas.repaint();
-            return;
-        }
-
-        if (line.startsWith(Protocol.GAME_OVER + " ")) {
-            String win = "UNKNOWN";
-            String[] sp = line.split("\\s+");
-            for (int i = 0; i < sp.length; i++) {
-                if (sp[i].startsWith("WIN=")) { win = sp[i].substring(4); break; }
-            }
-            gameOverBanner = "GAME OVER - WIN: " + win;
-            canvas.repaint();
-            return;
-        }
+        // TURN / AIM_UPDATE / RELOAD / FIRE_RESOLVE / GAME_OVER
+        if (onStateChanged(state.apply(line))) return;
 
         if (line.startsWith(Protocol.CHAT + " ")) {
             if (chatDialog != null && chatDialog.isVisible()) {
@@ -203,42 +195,11 @@ public class GameRoomFrame extends JFrame {
         }
     }
 
-    private void parseReload(String line) {
-        try {
-            int slash = line.indexOf('/');
-            int spaceAfter = line.indexOf(' ', slash);
-            if (slash > 0 && spaceAfter > slash) {
-                String left = line.substring(Protocol.RELOAD.length() + 1, slash).trim();
-                shotIndex = Integer.parseInt(left); // 보통 0
-            }
-            String[] sp = line.split("\\s+");
-            for (int i = 0; i < sp.length; i++) {
-                if (sp[i].startsWith("B=")) bulletsLeft = parseIntSafe(sp[i].substring(2), bulletsLeft);
-                else if (sp[i].startsWith("K=")) blanksLeft = parseIntSafe(sp[i].substring(2), blanksLeft);
-            }
-        } catch (Exception ignore) {}
-    }
-
-    private void parseFireResolve(String line) {
-        String[] sp = line.split("\\s+");
-        for (int i = 0; i < sp.length; i++) {
-            if (sp[i].startsWith("HP1=")) hp1 = parseIntSafe(sp[i].substring(4), hp1);
-            else if (sp[i].startsWith("HP2=")) hp2 = parseIntSafe(sp[i].substring(4), hp2);
-            else if (sp[i].startsWith("B_LEFT=")) bulletsLeft = parseIntSafe(sp[i].substring(7), bulletsLeft);
-            else if (sp[i].startsWith("K_LEFT=")) blanksLeft = parseIntSafe(sp[i].substring(7), blanksLeft);
-            else if (sp[i].startsWith("SHOT=")) {
-                int slash = sp[i].indexOf('/');
-                if (slash > 5) {
-                    String left = sp[i].substring(5, slash);
-                    shotIndex = parseIntSafe(left, shotIndex);
-                }
-            }
-        }
-    }
-
-    private int parseIntSafe(String s, int def) {
-        try { return Integer.parseInt(s.trim()); }
-        catch (Exception e) { return def; }
+    private boolean onStateChanged(int what) {
+        if (what == GameState.NONE) return false;
+        if (what == GameState.AIM) updateGunAngleForCurrentTurn();
+        canvas.repaint();
+        return true;
     }
 
     private void setupKeyBindings() {
@@ -249,14 +210,14 @@ public class GameRoomFrame extends JFrame {
         
         c.getActionMap().put("AIM_SELF", new AbstractAction() {
             @Override public void actionPerformed(java.awt.event.ActionEvent e) {
-                if (!myRole.equals(currentTurn)) return;
+                if (!myRole.equals(state.currentTurn)) return;
                 currentAim = "SELF";
                 net.send(Protocol.AIM + " SELF");
             }
         });
         c.getActionMap().put("AIM_ENEMY", new AbstractAction() {
             @Override public void actionPerformed(java.awt.event.ActionEvent e) {
-                if (!myRole.equals(currentTurn)) return;
+                if (!myRole.equals(state.currentTurn)) return;
                 currentAim = "ENEMY";
                 net.send(Protocol.AIM + " ENEMY");
             }
@@ -268,20 +229,14 @@ public class GameRoomFrame extends JFrame {
     }
 
     private void updateGunAngleForCurrentTurn() {
-        String targetAim;
-        if ("P1".equals(currentTurn)) {
-            targetAim = p1Aim;
-        } else {
-            targetAim = p2Aim;
-        }
-        
+        String targetAim = state.turnAim();
         targetAngleRad = "ENEMY".equals(targetAim) ? -Math.PI/2 : Math.PI/2;
         if (!rotTimer.isRunning()) rotTimer.start();
         canvas.repaint();
     }
 
     private void tryFire() {
-        if (!myRole.equals(currentTurn)) { return; }
+        if (!myRole.equals(state.currentTurn)) { return; }
         net.send(Protocol.FIRE);
     }
 
@@ -294,12 +249,12 @@ public class GameRoomFrame extends JFrame {
                         int code = e.getKeyCode();
                         
                         if (code == KeyEvent.VK_DOWN) {
-                            if (!myRole.equals(currentTurn)) return true;
+                            if (!myRole.equals(state.currentTurn)) return true;
                             currentAim = "SELF";
                             net.send(Protocol.AIM + " SELF");
                             return true;
                         } else if (code == KeyEvent.VK_UP) {
-                            if (!myRole.equals(currentTurn)) return true;
+                            if (!myRole.equals(state.currentTurn)) return true;
                             currentAim = "ENEMY";
                             net.send(Protocol.AIM + " ENEMY");
                             return true;
@@ -410,8 +365,8 @@ public class GameRoomFrame extends JFrame {
             // === 끝 ===
 
             // === [Req 2] 상단 배너 (닉네임 사용 및 폰트 키움) ===
-            String turnPlayerName = "P1".equals(currentTurn) ? p1Name : p2Name;
-            String banner = (gameOverBanner != null) ? gameOverBanner : (turnPlayerName + "'s Turn");
+            String turnPlayerName = "P1".equals(state.currentTurn) ? p1Name : p2Name;
+            String banner = (state.gameOverBanner != null) ? state.gameOverBanner : (turnPlayerName + "'s Turn");
             
             g.setFont(bannerFont); // 큰 폰트 적용
             g.setColor(Color.WHITE);
@@ -427,8 +382,8 @@ public class GameRoomFrame extends JFrame {
 
 
             // === HP 및 닉네임 표시 ===
-            int myHp = "P1".equals(myRole) ? hp1 : hp2;
-            int enemyHp = "P1".equals(myRole) ? hp2 : hp1;
+            int myHp = "P1".equals(myRole) ? state.hp1 : state.hp2;
+            int enemyHp = "P1".equals(myRole) ? state.hp2 : state.hp1;
             // [Req 1] "ME", "ENEMY" 대신 닉네임 사용
             String myDisplayName = myName; 
             String enemyDisplayName = "P1".equals(myRole) ? p2Name : p1Name;
@@ -464,8 +419,8 @@ public class GameRoomFrame extends JFrame {
             g.drawString(aimText, 10, h - 10);
 
             // === [Req 4] 우하단: 남은 장탄 수(실탄/공탄) - 크기 키움 ===
-            String ammoText = "BULLET: " + bulletsLeft;
-            String blankText = "BLANK: " + blanksLeft;
+            String ammoText = "BULLET: " + state.bulletsLeft;
+            String blankText = "BLANK: " + state.blanksLeft;
             
             g.setFont(ammoFont); // 1.5배 굵은 폰트 적용
             
@@ -485,7 +440,7 @@ public class GameRoomFrame extends JFrame {
 
         private void drawLives(Graphics g, int x, int y, int hp, int lifeW, int lifeH, int gap) {
             // hp 개수만큼 life.png를 그리고, (MAX_HP - hp)만큼은 테두리 사각형(혹은 흐릿하게)로 빈칸 표현
-            for (int i = 0; i < MAX_HP; i++) {
+            for (int i = 0; i < GameState.MAX_HP; i++) {
                 int drawX = x + i * (lifeW + gap);
                 if (i < hp) {
                     if (lifeImg != null) {
@@ -0,0 +1,156 @@
+package client;
+
+import server.LineCodec;
+import server.Message;
+import server.Protocol;
+
+/**
+ * 게임방에서 서버가 방송하는 상태 (HP, 턴, 장탄, 조준, 결과).
+ * 텍스트 줄이나 바이너리 Message를 반영하기만 하고 Swing은 모르므로
+ * 화면 없이도(벤치마크, 헤드리스 봇) 같은 파싱 코드를 쓸 수 있다.
+ * 한 스레드(보통 EDT)에서만 사용한다.
+ */
+public class GameState {
+    // apply() 결과: 화면이 무엇을 다시 그려야 하는지
+    public static final int NONE    = 0; // 게임 상태 줄이 아님
+    public static final int CHANGED = 1; // 다시 그리기
+    public static final int AIM     = 2; // 턴/조준이 바뀜 → 총 방향도 갱신
+
+    public static final int MAX_HP = 5;
+
+    int hp1 = MAX_HP;
+    int hp2 = MAX_HP;
+    String currentTurn = "P1"; // "P1" | "P2"
+    int shotIndex = 0;         // 0~6
+    int bulletsLeft = 0;       // 남은 실탄 수
+    int blanksLeft  = 0;       // 남은 공탄 수
+    String gameOverBanner = null;
+
+    // === [Req 9] 플레이어별 조준 상태 ===
+    String p1Aim = "ENEMY";
+    String p2Aim = "ENEMY";
+
+    // GAME_START 이후 받은 delta 수 (재접속할 때 RESUME으로 보낸다. Protocol의 RESUME 설명 참고)
+    int seq = 0;
+
+    private final LineCodec tok = new LineCodec(); // split/substring 없이 필드를 읽는다
+
+    public GameState(int initialBullets, int initialBlanks) {
+        this.bulletsLeft = initialBullets;
+        this.blanksLeft = initialBlanks;
+    }
+
+    public int hp1() { return hp1; }
+    public int hp2() { return hp2; }
+    public String currentTurn() { return currentTurn; }
+    public boolean isGameOver() { return gameOverBanner != null; }
+    public int seq() { return seq; }
+
+    /** 텍스트 줄 1개를 반영 */
+    public int apply(String line) {
+        LineCodec t = tok.set(line);
+
+        if (t.startsWithWord(Protocol.TURN)) {
+            seq++;
+            if (t.argEquals(Protocol.TURN.length() + 1, "P1")) currentTurn = "P1";
+            else if (t.argEquals(Protocol.TURN.length() + 1, "P2")) currentTurn = "P2";
+            return AIM;
+        }
+
+        if (t.startsWithWord(Protocol.AIM_UPDATE)) {
+            seq++;
+            String target = t.valueEquals("TARGET", "SELF") ? "SELF" : "ENEMY";
+            if (t.valueEquals("WHO", "P1")) p1Aim = target;
+            else if (t.valueEquals("WHO", "P2")) p2Aim = target;
+            return AIM;
+        }
+
+        // RELOAD k/6 B=.. K=..
+        if (t.startsWithWord(Protocol.RELOAD)) {
+            seq++;
+            shotIndex   = t.parseInt(Protocol.RELOAD.length() + 1, shotIndex); // 보통 0
+            bulletsLeft = t.intValue("B", bulletsLeft);
+            blanksLeft  = t.intValue("K", blanksLeft);
+            return CHANGED;
+        }
+
+        if (t.startsWithWord(Protocol.FIRE_RESOLVE)) {
+            seq++;
+            hp1         = t.intValue("HP1", hp1);
+            hp2         = t.intValue("HP2", hp2);
+            bulletsLeft = t.intValue("B_LEFT", bulletsLeft);
+            blanksLeft  = t.intValue("K_LEFT", blanksLeft);
+            shotIndex   = t.intValue("SHOT", shotIndex); // "k/6"의 k
+            return CHANGED;
+        }
+
+        if (t.startsWithWord(Protocol.GAME_OVER)) {
+            seq++;
+            String win = t.stringValue("WIN");
+            gameOverBanner = "GAME OVER - WIN: " + (win == null ? "UNKNOWN" : win);
+            return CHANGED;
+        }
+
+        // READY_STATUS의 텍스트 형태: 화면에는 쓰지 않지만 delta로 센다
+        if (t.startsWithWord(Protocol.ROOM_STATUS) && t.stringValue("P1_READY") != null) {
+            seq++;
+            return NONE;
+        }
+
+        // 재접속했는데 delta를 너무 많이 놓쳤을 때 서버가 보내는 전체 상태
+        if (t.startsWithWord(Protocol.STATE)) {
+            seq         = t.intValue("SEQ", seq);
+            hp1         = t.intValue("HP1", hp1);
+            hp2         = t.intValue("HP2", hp2);
+            currentTurn = t.valueEquals("TURN", "P2") ? "P2" : "P1";
+            shotIndex   = t.intValue("SHOT", shotIndex);
+            bulletsLeft = t.intValue("B", bulletsLeft);
+            blanksLeft  = t.intValue("K", blanksLeft);
+            p1Aim       = t.valueEquals("AIM1", "SELF") ? "SELF" : "ENEMY";
+            p2Aim       = t.valueEquals("AIM2", "SELF") ? "SELF" : "ENEMY";
+            String win  = t.stringValue("WIN");
+            if (win != null) gameOverBanner = "GAME OVER - WIN: " + win;
+            return AIM;
+        }
+        return NONE;
+    }
+
+    /** 바이너리 모드: 압축 메시지는 문자열 파싱 없이 필드를 바로 반영 */
+    public int apply(Message m) {
+        if (!m.isText()) seq++; // 서버가 보내는 압축 메시지는 모두 delta
+        switch (m.op()) {
+            case Protocol.OP_TURN:
+                if (m.arg(0) == 1) currentTurn = "P1";
+                else if (m.arg(0) == 2) currentTurn = "P2";
+                return AIM;
+            case Protocol.OP_AIM_UPDATE: {
+                String target = m.arg(1) != 0 ? "SELF" : "ENEMY";
+                if (m.arg(0) == 1) p1Aim = target;
+                else if (m.arg(0) == 2) p2Aim = target;
+                return AIM;
+            }
+            case Protocol.OP_RELOAD:
+                shotIndex   = m.arg(0);
+                bulletsLeft = m.arg(1);
+                blanksLeft  = m.arg(2);
+                return CHANGED;
+            case Protocol.OP_FIRE_RESOLVE:
+                hp1         = m.arg(2);
+                hp2         = m.arg(3);
+                bulletsLeft = m.arg(4);
+                blanksLeft  = m.arg(5);
+                shotIndex   = m.arg(6);
+                return CHANGED;
+            case Protocol.OP_GAME_OVER:
+                gameOverBanner = "GAME OVER - WIN: " + (m.arg(0) == 0 ? "DRAW" : "P" + m.arg(0));
+                return CHANGED;
+            default:
+                return m.isText() ? apply(m.line()) : NONE;
+        }
+    }
+
+    /** 지금 턴인 플레이어의 조준 */
+    String turnAim() {
+        return "P1".equals(currentTurn) ? p1Aim : p2Aim;
+    }
+}
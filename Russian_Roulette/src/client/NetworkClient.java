@@ -1,47 +1,219 @@
 package client;
 
+import server.Directory;
+import server.Message;
 import server.Protocol;
+import server.TcpTransport;
+import server.Transport;
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.function.Consumer;
 
 public class NetworkClient {
-    private Socket socket;
+    private final Transport transport; // TCP (기본) 또는 같은 JVM 안의 LoopbackTransport
+    private volatile Transport.Link socket;
     private BufferedReader in;
     private PrintWriter out;
     private volatile Consumer<String> onLine = s -> {};
 
+    // 바이너리 프로토콜 (서버가 BIN_OK로 수락했을 때만)
+    private boolean binary = false;
+    private DataInputStream binIn;
+    private OutputStream binOut;
+    private volatile Consumer<Message> onMessage = null; // 압축 메시지를 직접 처리할 화면 (없으면 텍스트로 변환해 onLine)
+    private volatile Runnable onClosed = () -> {};       // 서버 연결이 끊겼을 때 (수신 스레드에서 호출)
+
+    // 재접속(RESUME)용: 마지막 접속 정보와 서버가 준 세션 토큰
+    private String host;
+    private int port;
+    private boolean wantBinary;
+    private String name;               // 마지막 핸드셰이크 줄 (REDIRECT로 다른 노드에 다시 접속할 때)
+    private volatile String session;
+
     public NetworkClient(Consumer<String> initialConsumer) {
+        this(initialConsumer, TcpTransport.INSTANCE);
+    }
+
+    public NetworkClient(Consumer<String> initialConsumer, Transport transport) {
         if (initialConsumer != null) this.onLine = initialConsumer;
+        this.transport = transport;
     }
 
     public void connect(String host, int port, String name) throws IOException {
-        socket = new Socket(host, port);
-        in  = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
-        out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+        connect(host, port, name, false);
+    }
+
+    public void connect(String host, int port, String name, boolean wantBinary) throws IOException {
+        this.host = host;
+        this.port = port;
+        this.wantBinary = wantBinary;
+        open(name);
+    }
+
+    /**
+     * 게임 중에 끊긴 연결을 같은 방의 같은 자리로 다시 잇는다.
+     * lastSeq = 지금까지 받은 delta 수 (GameState.seq()). 서버가 놓친 것만 다시 보낸다.
+     * 세션이 없으면 false, 서버가 거절하면 RESUME_FAILED 줄을 받은 뒤 연결이 닫힌다.
+     */
+    public boolean resume(int lastSeq) throws IOException {
+        String token = session;
+        if (token == null || host == null) return false;
+        close();
+        binary = false;
+        open(Protocol.RESUME + " " + token + " " + lastSeq);
+        return true;
+    }
+
+    public String sessionToken() { return session; }
+
+    /**
+     * 클러스터 디렉터리에 가장 한가한 노드를 묻는다 (Directory 참고). 노드가 하나도 없으면 null.
+     * 돌려받은 주소로 connect()하면 된다.
+     */
+    public static InetSocketAddress route(String directoryHost, int directoryPort) throws IOException {
+        try (Socket s = new Socket(directoryHost, directoryPort)) {
+            s.setSoTimeout(5_000);
+            s.getOutputStream().write((Directory.ROUTE + "\n").getBytes("UTF-8"));
+            String[] a = String.valueOf(readAsciiLine(s.getInputStream())).split(" ");
+            if (a.length < 4 || !a[0].equals(Directory.ROUTE)) return null; // ROUTE_NONE
+            return InetSocketAddress.createUnresolved(a[2], Integer.parseInt(a[3]));
+        }
+    }
+
+    // name = 닉네임 (또는 RESUME 요청 줄)
+    private void open(String name) throws IOException {
+        this.name = name;
+        socket = transport.connect(host, port);
+        InputStream rawIn = socket.in();
+        OutputStream rawOut = socket.out();
 
         // 서버 HELLO 응답(닉네임 전송)
-        String hello = in.readLine();
-        if (Protocol.HELLO.equals(hello)) { out.println(name); }
+        // 핸드셰이크 줄은 1바이트씩 읽어 이후 바이너리 프레임을 버퍼에 빼앗기지 않게 한다
+        String hello = readAsciiLine(rawIn);
+        if (Protocol.HELLO.equals(hello)) {
+            String reply = wantBinary ? Protocol.HELLO_BIN + " " + name : name;
+            rawOut.write((reply + "\n").getBytes("UTF-8"));
+            rawOut.flush();
+            if (wantBinary) binary = Protocol.BIN_OK.equals(readAsciiLine(rawIn));
+        }
 
-        new Thread(this::listen, "ClientListen").start();
+        if (binary) {
+            binIn  = new DataInputStream(new BufferedInputStream(rawIn));
+            binOut = new BufferedOutputStream(rawOut);
+        } else {
+            in  = new BufferedReader(new InputStreamReader(rawIn, "UTF-8"));
+            out = new PrintWriter(new OutputStreamWriter(rawOut, "UTF-8"), true);
+        }
+
+        // 수신 스레드는 가상 스레드: 헤드리스 부하 생성기처럼 연결 수천 개를 한 프로세스에서 열 때도 가볍다
+        // 재접속하면 필드가 새 연결로 바뀌므로 이 연결의 소켓/스트림을 붙잡아 넘긴다
+        Transport.Link s = socket;
+        boolean bin = binary;
+        DataInputStream bi = binIn;
+        BufferedReader ti = in;
+        Thread.ofVirtual().name("ClientListen").start(() -> listen(s, bin, bi, ti));
+    }
+
+    private static String readAsciiLine(InputStream is) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = is.read()) >= 0 && c != '\n') {
+            if (c != '\r') sb.append((char) c);
+        }
+        return (c < 0 && sb.length() == 0) ? null : sb.toString();
     }
 
-    private void listen() {
+    private void listen(Transport.Link s, boolean binary, DataInputStream binIn, BufferedReader in) {
         try {
-            String line;
-            while ((line = in.readLine()) != null) {
-                onLine.accept(line);
+            if (binary) {
+                byte[] scratch = new byte[Message.MAX_FRAME];
+                Message m;
+                while ((m = Message.read(binIn, scratch)) != null) {
+                    Consumer<Message> mc = onMessage;
+                    if (mc != null && !m.isText()) mc.accept(m);
+                    else if (!control(m.line())) onLine.accept(m.line());
+                }
+            } else {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!control(line)) onLine.accept(line);
+                }
             }
         } catch (IOException ignore) {
+        } finally {
+            if (s == socket) onClosed.run(); // resume()으로 버린 이전 연결이면 알리지 않는다
         }
     }
 
+    // 화면으로 넘기지 않는 연결 관리용 줄
+    private boolean control(String line) {
+        if (line.equals(Protocol.PING)) {
+            send(Protocol.PONG);
+            return true;
+        }
+        if (line.startsWith(Protocol.SESSION + " ")) {
+            session = line.substring(Protocol.SESSION.length() + 1).trim();
+            return true;
+        }
+        if (line.equals(Protocol.RESUME_FAILED)) {
+            session = null;
+            close();
+            return true;
+        }
+        if (line.startsWith(Protocol.REDIRECT + " ")) {
+            redirect(line);
+            return true;
+        }
+        return false;
+    }
+
+    // REDIRECT <host> <port> <명령 줄>: 방이 다른 노드에 있다. 같은 닉네임으로 그 노드에 다시 붙어 명령을 다시 보낸다.
+    // 이 연결의 수신 스레드에서 호출되며, 새 연결은 새 수신 스레드를 띄운다 (이 스레드는 소켓이 닫혀 끝난다)
+    private void redirect(String line) {
+        String[] a = line.split(" ", 4);
+        if (a.length < 4) return;
+        close();
+        host = a[1];
+        port = Integer.parseInt(a[2]);
+        binary = false;
+        try {
+            open(name);
+            send(a[3]);
+        } catch (IOException e) {
+            Runnable r = onClosed;
+            r.run(); // 새 노드에 붙지 못했으면 끊긴 것으로 처리
+        }
+    }
+
+    public boolean isBinary() { return binary; }
+
+    public void setOnClosed(Runnable r) {
+        this.onClosed = (r == null) ? () -> {} : r;
+    }
+
+    public void close() {
+        Transport.Link s = socket;
+        if (s != null) s.close();
+    }
+
     public void setOnLine(Consumer<String> consumer) {
         this.onLine = (consumer == null) ? (s -> {}) : consumer;
     }
 
+    public void setOnMessage(Consumer<Message> consumer) {
+        this.onMessage = consumer;
+    }
+
     public void send(String line) {
-        out.println(line);
+        if (!binary) { out.println(line); return; }
+        byte[] f = Message.fromClientLine(line).frame();
+        synchronized (this) {
+            try {
+                binOut.write(f);
+                binOut.flush();
+            } catch (IOException ignore) {
+            }
+        }
     }
 }
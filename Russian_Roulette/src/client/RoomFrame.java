@@ -1,5 +1,6 @@
 package client;
 
+import server.LineCodec;
 import server.Protocol;
 
 import javax.swing.*;
@@ -19,9 +20,14 @@ public class RoomFrame extends JFrame {
     private final JButton readyButton;
     private boolean p1Ready = false;
     private boolean p2Ready = false;
+    private final LineCodec kv = new LineCodec(); // KEY=VALUE 파싱용 (EDT 전용)
     // === [Req 3] 끝 ===
 
     public RoomFrame(String host, int port, String name) throws Exception {
+        this(host, port, name, false);
+    }
+
+    public RoomFrame(String host, int port, String name, boolean binary) throws Exception {
         super("Lobby - " + name);
         this.myName = name;
 
@@ -55,7 +61,7 @@ public class RoomFrame extends JFrame {
         // === [Req 3] 끝 ===
 
         net = new NetworkClient(s -> SwingUtilities.invokeLater(() -> onServerLine(s)));
-        net.connect(host, port, name);
+        net.connect(host, port, name, binary);
     }
 
     private void onServerLine(String line) {
@@ -85,6 +91,11 @@ public class RoomFrame extends JFrame {
             statusLabel.setText("STATUS: Press Ready to Start");
             readyButton.setEnabled(true);
             
+        } else if (line.startsWith(Protocol.TIMEOUT)) {
+            // READY를 오래 누르지 않아 서버가 방을 닫음
+            statusLabel.setText("STATUS: 준비 시간 초과로 방이 닫혔습니다 (" + line.substring(Protocol.TIMEOUT.length()).trim() + ")");
+            readyButton.setEnabled(false);
+
         } else if (line.startsWith(Protocol.GAME_START)) {
             // [Req 3] GAME_START 신호를 받으면 게임방 입장
             if (p1Name == null) p1Name = parseKV(line, "P1");
@@ -108,11 +119,7 @@ public class RoomFrame extends JFrame {
     }
 
     private String parseKV(String line, String key) {
-        String[] sp = line.split("\\s+");
-        for (String tok : sp) {
-            if (tok.startsWith(key + "=")) return tok.substring((key + "=").length());
-        }
-        return null;
+        return kv.set(line).stringValue(key);
     }
     
     // [Req 3-3] GameRoomFrame에서 가져온 헬퍼 메소드
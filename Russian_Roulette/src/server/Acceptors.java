@@ -0,0 +1,147 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 접속을 받는 스레드 N개 (ServerCore BLOCKING/VIRTUAL 모드, NioServer).
+ * 재시작 직후처럼 접속이 한꺼번에 몰릴 때 accept 스레드 하나가 병목이 되지 않도록:
+ *   - SO_REUSEPORT가 되면 (리눅스) 같은 포트에 소켓을 N개 열고 스레드마다 하나씩. 커널이 연결을 소켓별로 나눠 준다
+ *   - 안 되면 소켓 하나를 N개 스레드가 같이 accept
+ * backlog는 accept 전까지 커널이 쌓아 두는 연결 수 (소켓마다, 리눅스는 net.core.somaxconn까지만 적용).
+ * accept 스레드는 받은 연결을 handoff로 넘기기만 한다 (연결별 스레드 생성, 리액터 등록).
+ */
+final class Acceptors {
+    static final int DEFAULT_BACKLOG = 1024;
+    private static final long BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long RATE_MS = 1000;
+    private static final Metrics.Counter ERRORS = Metrics.counter("accept.errors");
+    private static final Metrics.Histogram HANDOFF_TIME = Metrics.histogram("accept.handoff.time", "us"); // accept 스레드가 연결 하나에 쓴 시간
+
+    /** accept한 연결을 넘겨받는 곳. 예외를 던지면 그 연결만 닫는다 */
+    interface Handoff {
+        void accept(SocketChannel ch) throws IOException;
+    }
+
+    private final Consumer<String> log;
+    private final Handoff handoff;
+    private final ServerSocketChannel[] channels;
+    private final boolean reusePort;
+    private final TimerWheel timers; // 초당 accept 수 측정 (null이면 안 함)
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private long lastAccepted;           // 휠 스레드 전용
+    private volatile long rate, peakRate; // 직전 1초, 시작 후 최대
+
+    /** port에 acceptors개 스레드로 받기 시작한다. port=0이면 아무 포트 (port()로 확인) */
+    Acceptors(int port, int backlog, int acceptors, Handoff handoff, TimerWheel timers, Consumer<String> log) throws IOException {
+        this.log = log;
+        this.handoff = handoff;
+        this.timers = timers;
+
+        ServerSocketChannel first = ServerSocketChannel.open();
+        boolean reuse = acceptors > 1 && first.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        this.reusePort = reuse;
+        // SO_REUSEPORT 소켓끼리는 포트를 조용히 나눠 가지므로, 다른 서버가 이미 쓰는 포트면 먼저 BindException을 낸다
+        if (reuse && port != 0) {
+            try (ServerSocketChannel probe = ServerSocketChannel.open()) {
+                probe.bind(new InetSocketAddress(port));
+            } catch (IOException e) {
+                first.close();
+                throw e;
+            }
+        }
+        this.channels = new ServerSocketChannel[reuse ? acceptors : 1];
+        channels[0] = first;
+        try {
+            if (reuse) first.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            first.bind(new InetSocketAddress(port), backlog);
+            // 나머지는 첫 소켓이 실제로 잡은 포트에 (port=0이어도 같은 포트)
+            for (int i = 1; i < channels.length; i++) {
+                channels[i] = ServerSocketChannel.open();
+                channels[i].setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                channels[i].bind(new InetSocketAddress(port()), backlog);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+
+        for (int i = 0; i < acceptors; i++) {
+            ServerSocketChannel ch = channels[i % channels.length];
+            new Thread(() -> acceptLoop(ch), "AcceptLoop-" + i).start();
+        }
+        Metrics.gauge("accept.rate", () -> rate);
+        Metrics.gauge("accept.rate.peak", () -> peakRate);
+        if (timers != null) timers.schedule(RATE_MS, this::sampleRate);
+    }
+
+    int port() {
+        return channels[0].socket().getLocalPort();
+    }
+
+    /** 로그용: "4 acceptors (SO_REUSEPORT x4), backlog 1024" */
+    String describe(int acceptors, int backlog) {
+        return acceptors + (acceptors == 1 ? " acceptor" : " acceptors")
+                + (reusePort ? " (SO_REUSEPORT x" + channels.length + ")" : acceptors > 1 ? " (shared socket)" : "")
+                + ", backlog " + backlog;
+    }
+
+    /** 소켓을 닫는다. accept에서 기다리던 스레드는 바로 끝난다 (아직 accept 안 된 연결은 커널이 끊는다) */
+    void close() {
+        running = false;
+        for (ServerSocketChannel ch : channels) {
+            if (ch == null) continue;
+            try { ch.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    private void acceptLoop(ServerSocketChannel server) {
+        while (running) {
+            SocketChannel ch;
+            try {
+                ch = server.accept(); // 블로킹 accept
+            } catch (ClosedChannelException e) {
+                return; // close() (다른 스레드가 닫으면 AsynchronousCloseException)
+            } catch (IOException e) {
+                if (!running) return;
+                // 파일 디스크립터가 모자라면 (EMFILE) 같은 오류가 계속되므로 잠깐 쉬고 다시. 서버 전체를 멈추지 않는다
+                ERRORS.inc();
+                log.accept("[Server] accept error: " + e.getMessage());
+                LockSupport.parkNanos(BACKOFF_NANOS);
+                continue;
+            }
+            Metrics.CONN_ACCEPTED.inc();
+            accepted.increment();
+            long t0 = System.nanoTime();
+            try {
+                handoff.accept(ch);
+            } catch (IOException | RuntimeException e) {
+                log.accept("[Server] dropped connection: " + e.getMessage());
+                try { ch.close(); } catch (IOException ignored) {}
+                Metrics.CONN_CLOSED.inc();
+            }
+            HANDOFF_TIME.record((System.nanoTime() - t0) / 1_000);
+        }
+    }
+
+    // 1초마다 직전 1초의 accept 수. 연결마다 시각을 재지 않도록 휠에서 카운터 차이만 본다
+    private void sampleRate() {
+        if (!running) return;
+        long n = accepted.sum();
+        long r = n - lastAccepted;
+        lastAccepted = n;
+        rate = r;
+        if (r > peakRate) peakRate = r;
+        timers.schedule(RATE_MS, this::sampleRate);
+    }
+}
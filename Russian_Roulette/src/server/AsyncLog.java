@@ -0,0 +1,115 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 비동기 로그 싱크. ServerCore의 로그 콜백(Consumer<String>)으로 그대로 쓴다.
+ * 로그를 남기는 스레드(리액터, Room 액터, 매칭 스레드)는 고정 크기 링 버퍼에 넣기만 하고(락 없음),
+ * 실제 출력은 "AsyncLog" 스레드 하나가 모아서 한 번에 out으로 넘긴다.
+ * 버퍼가 가득 차면 기다리지 않고 그 줄을 버린 뒤 개수만 센다 (로그 때문에 게임이 느려지지 않도록).
+ */
+public final class AsyncLog implements Consumer<String>, AutoCloseable {
+    private static final int MAX_BATCH = 256; // out 한 번에 넘기는 최대 줄 수
+
+    private final String[] slots;
+    private final AtomicLongArray seq; // 칸별 순번: 비었음(pos) / 채워짐(pos+1)
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // 생산자들이 다음에 쓸 위치
+    private long head = 0;                            // 소비자 스레드 전용
+
+    private final Consumer<String> out; // 여러 줄을 '\n'으로 이은 묶음을 받는다
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean sleeping = false;
+
+    public AsyncLog(int capacity, Consumer<String> out) {
+        int n = 1;
+        while (n < capacity) n <<= 1;
+        this.slots = new String[n];
+        this.seq = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) seq.set(i, i);
+        this.mask = n - 1;
+        this.out = out;
+        this.worker = new Thread(this::drainLoop, "AsyncLog");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /** 버퍼가 넘쳐 버린 줄 수 */
+    public long dropped() { return dropped.sum(); }
+
+    @Override
+    public void accept(String line) {
+        if (!running) return;
+        long pos = tail.get();
+        while (true) {
+            int i = (int) pos & mask;
+            long dif = seq.get(i) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[i] = line;
+                    seq.lazySet(i, pos + 1); // 소비자에게 공개
+                    break;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                dropped.increment(); // 가득 참
+                return;
+            } else {
+                pos = tail.get(); // 다른 생산자가 먼저 가져감
+            }
+        }
+        if (sleeping) LockSupport.unpark(worker);
+    }
+
+    private String poll() {
+        int i = (int) head & mask;
+        if (seq.get(i) != head + 1) return null;
+        String s = slots[i];
+        slots[i] = null;
+        seq.lazySet(i, head + slots.length); // 한 바퀴 뒤의 생산자에게 반환
+        head++;
+        return s;
+    }
+
+    private void drainLoop() {
+        StringBuilder sb = new StringBuilder(4096);
+        long reportedDrops = 0;
+        while (true) {
+            int n = 0;
+            String s;
+            while (n < MAX_BATCH && (s = poll()) != null) {
+                sb.append(s).append('\n');
+                n++;
+            }
+            long d = dropped.sum();
+            if (d != reportedDrops) {
+                sb.append("[Log] dropped ").append(d - reportedDrops).append(" lines (buffer full)\n");
+                reportedDrops = d;
+            }
+            if (sb.length() > 0) {
+                try { out.accept(sb.toString()); }
+                catch (RuntimeException ignored) {} // 출력 오류로 로그 스레드가 죽지 않도록
+                sb.setLength(0);
+                continue;
+            }
+            if (!running) return;
+            sleeping = true;
+            if (seq.get((int) head & mask) != head + 1) LockSupport.parkNanos(50_000_000L); // 들어오면 unpark
+            sleeping = false;
+        }
+    }
+
+    /** 남은 줄을 모두 내보내고 종료 */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try { worker.join(2000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
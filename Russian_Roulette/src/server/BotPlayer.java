@@ -0,0 +1,59 @@
+package server;
+
+/**
+ * 서버 안의 AI 상대. 소켓 없는 ClientHandler로 방에 그대로 들어간다 (Room은 사람과 구별하지 않는다).
+ * 방이 보내는 메시지를 인코딩 없이 queue()에서 바로 보고,
+ * ENTER_ROOM이면 READY, 자기 TURN이면 BotPolicy 표에서 조준을 찾아 AIM(필요할 때만) + FIRE를 방 메일박스에 넣는다.
+ * queue()는 Room 액터 안에서 불리므로 그 자리에서 방 상태를 읽어도 안전하다.
+ */
+final class BotPlayer extends ClientHandler {
+    private static final Metrics.Counter MOVES = Metrics.counter("bot.moves");
+
+    // 보낼 곳이 없다 (send()/채팅도 queue()로 들어와 버려진다)
+    private static final Outbound.Sink NOWHERE = new Outbound.Sink() {
+        @Override public void write(byte[] data, int len) {}
+        @Override public long backlogBytes() { return 0; }
+        @Override public void close() {}
+    };
+
+    private final long thinkMs; // 사람 상대로는 조금 기다렸다가 쏜다 (0이면 바로)
+
+    BotPlayer(String name, long thinkMs) {
+        super(NOWHERE, name, false);
+        this.thinkMs = thinkMs;
+    }
+
+    @Override
+    void queue(Message m) {
+        Room r = room();
+        if (r == null || r.isFinished()) return;
+        if (m.isText()) {
+            if (m.line().startsWith(Protocol.ENTER_ROOM)) later(r, () -> r.onReady(this));
+            return;
+        }
+        if (m.op() != Protocol.OP_TURN) return;
+        int me = (r.player1() == this) ? 1 : 2;
+        if (m.arg(0) != me) return;
+
+        // 내 턴: 상대는 내 발사 전까지 이 상태를 바꿀 수 없다 (자기 조준만 바꿀 수 있다)
+        long s = r.state();
+        boolean self = BotPolicy.STANDARD.aimSelf(RoomState.hp(s, me), RoomState.hp(s, 3 - me),
+                RoomState.bulletsLeft(s), RoomState.blanksLeft(s));
+        boolean reaim = RoomState.aimSelf(s, me) != self;
+        MOVES.inc();
+        later(r, () -> {
+            if (reaim) r.onAim(this, self);
+            r.onFire(this);
+        });
+    }
+
+    @Override
+    void queueEncoded(byte[] text, byte[] bin, int lines) {} // 채팅은 읽지 않는다
+
+    // 명령은 메일박스에 넣기만 하므로 액터 안에서 바로 불러도 된다
+    private void later(Room r, Runnable action) {
+        TimerWheel wheel = r.timers();
+        if (thinkMs <= 0 || wheel == null) action.run();
+        else wheel.schedule(thinkMs, action);
+    }
+}
@@ -0,0 +1,114 @@
+package server;
+
+/**
+ * 봇의 조준 표. 가능한 모든 상황 (내 체력, 상대 체력, 남은 실탄, 남은 공탄)에 대해
+ * 이길 확률이 가장 높은 조준(SELF/ENEMY)을 미리 계산해 두고, 봇은 표만 찾는다.
+ * 실제 서버 규칙의 표(STANDARD)는 클래스 로딩 때 한 번, 다른 규칙은 Simulator가 필요할 때 만든다.
+ *
+ * 규칙은 GameEngine.fire 그대로:
+ *   실탄이면 맞은 쪽 체력 -1 후 턴 교대, 공탄이면 자기에게 쏜 경우만 턴 유지 (blankSelfKeepsTurn).
+ *   탄창이 비면 새 탄창 (칸마다 bulletOdds 확률로 실탄) 후 그때 턴인 쪽이 쏜다.
+ * 남은 실탄 b, 공탄 k를 알면 다음 칸이 실탄일 확률은 b/(b+k)이다 (탄창의 칸 배치는 모두 같은 확률).
+ *
+ * V(me, opp, b, k) = 쏠 차례인 쪽이 이길 확률.
+ *   SELF : b/n · (me==1 ? 0 : 1 - V'(opp, me-1, b-1, k)) + k/n · V'(me, opp, b, k-1)
+ *   ENEMY: b/n · (opp==1 ? 1 : 1 - V'(opp-1, me, b-1, k)) + k/n · (1 - V'(opp, me, b, k-1))
+ *   V'(.., 0, 0) = 새 탄창의 기댓값 Σ P(실탄 b발) · V(.., b, N-b)
+ * 공탄만 계속 나오면 같은 체력으로 되돌아오는 순환이 있으므로 값이 더 변하지 않을 때까지 반복한다.
+ */
+final class BotPolicy {
+    private static final double EPS = 1e-12;
+
+    static final BotPolicy STANDARD = new BotPolicy(GameEngine.Rules.STANDARD);
+
+    private final GameEngine.Rules rules;
+    private final int hpMax, n;
+    // [me][opp][b][k] 를 한 배열로. b=k=0 칸은 "새 탄창을 넣기 직전"의 기댓값
+    private final double[] value;
+    private final boolean[] selfTable;
+    private final double[] reloadP; // 새 탄창에 실탄이 b발일 확률
+
+    BotPolicy(GameEngine.Rules rules) {
+        this.rules = rules;
+        this.hpMax = rules.hp();
+        this.n = rules.chambers();
+        this.value = new double[(hpMax + 1) * (hpMax + 1) * (n + 1) * (n + 1)];
+        this.selfTable = new boolean[value.length];
+        this.reloadP = new double[n + 1];
+        double p = rules.bulletOdds();
+        for (int b = 0; b <= n; b++) reloadP[b] = binomial(n, b) * Math.pow(p, b) * Math.pow(1 - p, n - b);
+        solve();
+    }
+
+    private int at(int me, int opp, int b, int k) {
+        return ((me * (hpMax + 1) + opp) * (n + 1) + b) * (n + 1) + k;
+    }
+
+    /** 쏠 차례인 쪽이 자기를 겨눠야 하는가. 체력은 1..hp, b+k는 1..chambers */
+    boolean aimSelf(int me, int opp, int bullets, int blanks) {
+        return selfTable[at(me, opp, bullets, blanks)];
+    }
+
+    /** 쏠 차례인 쪽이 (양쪽 모두 이 표대로 둘 때) 이길 확률. b=k=0이면 새 탄창을 넣기 직전 */
+    double winChance(int me, int opp, int bullets, int blanks) {
+        return value[at(me, opp, bullets, blanks)];
+    }
+
+    // 가우스-자이델 반복. 실제 규칙은 1225개 상태라 수 밀리초
+    private void solve() {
+        for (int iter = 0; iter < 10_000; iter++) {
+            double delta = 0;
+            for (int me = 1; me <= hpMax; me++) {
+                for (int opp = 1; opp <= hpMax; opp++) {
+                    for (int left = 1; left <= n; left++) {
+                        for (int b = 0; b <= left; b++) delta = Math.max(delta, update(me, opp, b, left - b));
+                    }
+                    double r = 0;
+                    for (int b = 0; b <= n; b++) r += reloadP[b] * value[at(me, opp, b, n - b)];
+                    delta = Math.max(delta, Math.abs(r - value[at(me, opp, 0, 0)]));
+                    value[at(me, opp, 0, 0)] = r;
+                }
+            }
+            if (delta < EPS) return;
+        }
+    }
+
+    private double update(int me, int opp, int b, int k) {
+        double pb = b / (double) (b + k), pk = 1 - pb;
+        double self = 0, enemy = 0;
+        if (b > 0) {
+            self  += pb * (me == 1 ? 0 : 1 - value[at(opp, me - 1, b - 1, k)]);
+            enemy += pb * (opp == 1 ? 1 : 1 - value[at(opp - 1, me, b - 1, k)]);
+        }
+        if (k > 0) {
+            self  += pk * (rules.blankSelfKeepsTurn() ? value[at(me, opp, b, k - 1)] : 1 - value[at(opp, me, b, k - 1)]);
+            enemy += pk * (1 - value[at(opp, me, b, k - 1)]);
+        }
+        int i = at(me, opp, b, k);
+        double v = Math.max(self, enemy), d = Math.abs(v - value[i]);
+        value[i] = v;
+        selfTable[i] = self > enemy + EPS; // 같으면 상대를 겨눈다
+        return d;
+    }
+
+    private static int binomial(int n, int r) {
+        int c = 1;
+        for (int i = 1; i <= r; i++) c = c * (n - r + i) / i;
+        return c;
+    }
+
+    /** 표 확인용: java -cp bin server.BotPolicy */
+    public static void main(String[] args) {
+        BotPolicy t = STANDARD;
+        for (int me = 1; me <= t.hpMax; me++) {
+            for (int opp = 1; opp <= t.hpMax; opp++) {
+                StringBuilder sb = new StringBuilder(String.format("HP %d vs %d  new cylinder %.3f  ", me, opp, t.winChance(me, opp, 0, 0)));
+                for (int left = 1; left <= t.n; left++) {
+                    for (int b = 0; b <= left; b++) sb.append(t.aimSelf(me, opp, b, left - b) ? 'S' : 'E');
+                    sb.append(' ');
+                }
+                System.out.println(sb);
+            }
+        }
+    }
+}
@@ -2,65 +2,326 @@ package server;
 
 import java.io.*;
 import java.net.Socket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ClientHandler implements Runnable {
-    private final Socket socket;
-    private final BufferedReader in;
-    private final PrintWriter out; // autoFlush = true
+    // BLOCKING/VIRTUAL/LOOPBACK 모드: 연결 스트림 (스레드 1개가 readLine()으로 대기)
+    private final Transport.Link link;
+    private final LineReader in;
+
+    // NIO 모드: 리액터가 읽은 줄을 handleLine()으로 넘겨준다
+    private final NioConnection conn;
+
+    // 송신 대기열: 모드와 상관없이 여기에 쌓고 flush()로 한 번에 보낸다
+    private final Outbound outbound;
 
     private volatile Room room;
-    private final String nickname;
+    private volatile Room watching;      // 관전 중인 방 (플레이어로 들어간 방과는 따로)
+    private volatile RoomRegistry rooms; // 로비 명령(ROOM_LIST/CREATE/JOIN)용
+    private volatile String nickname;    // RESUME 연결은 핸드셰이크 후 원래 닉네임으로 바뀐다
+    private volatile String session;     // 재접속 토큰 (Sessions)
+
+    private volatile boolean closed = false;
+    private volatile long lastInput = System.nanoTime(); // 하트비트: 마지막으로 무엇이든 받은 시각
+
+    // 매칭 상태: 자동 매칭 대기열에 있는지, 로비에서 직접 방을 고르기로 했는지, 매칭됐는지
+    private static final int QUEUED = 0, LOBBY = 1, MATCHED = 2;
+    private final AtomicInteger matchState = new AtomicInteger(QUEUED);
+
+    // HELLO_BIN으로 협상한 클라이언트: 송수신 모두 Message 프레임
+    private final boolean binary;
 
-    public ClientHandler(Socket socket, String nickname) throws IOException {
-        this.socket   = socket;
+    // 채팅 token bucket (수신 스레드 전용): 몰아서 CHAT_BURST줄, 그 뒤로는 초당 CHAT_RATE줄.
+    // GCRA 형태라 상태는 "다음 줄이 규칙대로 도착할 시각" 하나뿐이다
+    private static final int CHAT_BURST = 5, CHAT_RATE = 2;
+    private static final long CHAT_INTERVAL = 1_000_000_000L / CHAT_RATE;
+    private long chatTat = System.nanoTime();
+
+    // 수신 줄 해석용 (수신 스레드 전용. 줄마다 String을 만들지 않는다)
+    private final LineCodec lineCodec = new LineCodec();
+
+    private ClientHandler(Transport.Link link, LineReader in, Executor writer, String nickname, boolean binary,
+                          Outbound.Limits limits) throws IOException {
+        this.link     = link;
+        this.conn     = null;
         this.nickname = nickname;
-        this.in  = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
-        this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+        this.binary   = binary;
+        this.in  = in;
+        this.outbound = new Outbound(new LinkSink(link), writer, Outbound.Overflow.DISCONNECT, limits);
+    }
+
+    /**
+     * BLOCKING/VIRTUAL 모드 핸드셰이크: HELLO를 보내고 닉네임 한 줄을 받는다.
+     * 같은 reader를 계속 쓰므로 닉네임 뒤에 바로 붙어 온 명령도 잃지 않는다.
+     * timeoutMs 안에 닉네임이 오지 않으면 SocketTimeoutException.
+     * 닉네임 대신 HELLO_BIN이 오면 BIN_OK로 답하고 바이너리 모드로 전환한다.
+     * 이후 송신은 writer(Executor)에서 실행된다.
+     */
+    public static ClientHandler handshake(Socket socket, int timeoutMs, Executor writer) throws IOException {
+        return handshake(TcpTransport.wrap(socket), timeoutMs, writer, Outbound.Limits.DEFAULT);
+    }
+
+    static ClientHandler handshake(Transport.Link link, int timeoutMs, Executor writer, Outbound.Limits limits) throws IOException {
+        LineReader   in  = new LineReader(link.in());
+        OutputStream out = link.out();
+        out.write((Protocol.HELLO + "\n").getBytes("UTF-8"));
+        out.flush();
+
+        LineCodec first = new LineCodec();
+        link.setReadTimeout(timeoutMs);
+        boolean got = in.readLine(first);
+        link.setReadTimeout(0);
+        if (!got) throw new EOFException("closed during handshake");
+        String name = first.toString();
+
+        boolean binary = name.startsWith(Protocol.HELLO_BIN);
+        if (binary) {
+            name = name.substring(Protocol.HELLO_BIN.length());
+            out.write((Protocol.BIN_OK + "\n").getBytes("UTF-8"));
+            out.flush();
+        }
+        return new ClientHandler(link, in, writer, nickname(name), binary, limits);
+    }
+
+    // 핸드셰이크 첫 줄(HELLO_BIN 뒤)의 닉네임. RESUME 요청은 제어문자를 지우지 않고 그대로 둔다
+    static String nickname(String raw) {
+        String s = raw.strip();
+        if (s.startsWith(Protocol.RESUME)) return s;
+        return raw.isBlank() ? "Player" : raw.trim();
+    }
+
+    public ClientHandler(NioConnection conn, String nickname, boolean binary) {
+        this(conn, nickname, binary, Outbound.Limits.DEFAULT);
     }
 
-    public void setRoom(Room room) { this.room = room; }
+    ClientHandler(NioConnection conn, String nickname, boolean binary, Outbound.Limits limits) {
+        this.link     = null;
+        this.in       = null;
+        this.conn     = conn;
+        this.nickname = nickname;
+        this.binary   = binary;
+        // NIO 채널 쓰기는 블로킹되지 않으므로 호출 스레드에서 바로 합쳐서 넘긴다
+        this.outbound = new Outbound(conn, Runnable::run, Outbound.Overflow.DISCONNECT, limits);
+    }
+
+    /** 소켓 없는 연결 (벤치마크, 서버 내부 시뮬레이션). 송신은 sink로 바로 넘어간다 */
+    ClientHandler(Outbound.Sink sink, String nickname, boolean binary) {
+        this.link     = null;
+        this.in       = null;
+        this.conn     = null;
+        this.nickname = nickname;
+        this.binary   = binary;
+        this.outbound = new Outbound(sink, Runnable::run, Outbound.Overflow.DISCONNECT);
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+        outbound.tag(room == null ? 0 : room.getId(), nickname);
+    }
+    void setRegistry(RoomRegistry rooms) { this.rooms = rooms; }
+
+    // Matchmaker가 대기열에서 꺼낼 때 (로비로 빠진 플레이어는 건너뛴다)
+    boolean claimForMatch() { return matchState.compareAndSet(QUEUED, MATCHED); }
+    void releaseMatch() { matchState.compareAndSet(MATCHED, QUEUED); }
+    boolean isQueued() { return matchState.get() == QUEUED; }
+
+    // ROOM_CREATE/ROOM_JOIN 전에: 자동 매칭에서 빠져 로비로. 게임 중이면 false
+    boolean claimForLobby() {
+        Room r = room;
+        if (r != null) return r.isFinished();
+        return matchState.compareAndSet(QUEUED, LOBBY) || matchState.get() == LOBBY;
+    }
     public String getNickname() { return nickname; }
+    boolean isResumeRequest() { return nickname.startsWith(Protocol.RESUME); }
+    String sessionToken() { return session; }
+    void setSession(String token) { this.session = token; }
+    Room room() { return room; }
+    Room watching() { return watching; }
+    void setWatching(Room r) { this.watching = r; }
+
+    /** RESUME: 끊긴 연결 old의 닉네임을 이어받는다 (방에 다시 묶기 전에, 핸드셰이크 스레드에서) */
+    void resumeAs(ClientHandler old) { this.nickname = old.nickname; }
+    public boolean isBinary() { return binary; }
+    NioConnection connection() { return conn; }
+    public boolean isClosed() { return conn != null ? conn.isClosed() : closed; }
 
     @Override
     public void run() {
+        if (link == null) return; // NIO 모드에서는 리액터가 읽기를 담당
         try {
-            String line;
-            while ((line = in.readLine()) != null) {
-                if (line.isEmpty()) continue;
-
-                // === CHAT <text> ===
-                if (line.startsWith(Protocol.CHAT + " ")) {
-                    String msg = line.substring(Protocol.CHAT.length() + 1).trim();
-                    if (room != null && !msg.isEmpty()) room.broadcastChat(nickname, msg);
-                    continue;
+            if (binary) {
+                // LineReader 버퍼에 남은 바이트부터 이어서 프레임으로 읽는다
+                DataInputStream din = new DataInputStream(in);
+                byte[] scratch = new byte[Message.MAX_FRAME];
+                Message m;
+                while ((m = Message.read(din, scratch)) != null) {
+                    handleMessage(m);
                 }
-
-                // === [Req 3] READY ===
-                if (line.equals(Protocol.READY)) {
-                    if (room != null) room.onReady(this);
-                    continue;
+            } else {
+                while (in.readLine(lineCodec)) {
+                    handleLine(lineCodec);
                 }
+            }
+        } catch (IOException ignore) {
+        } finally {
+            closed = true;
+            link.close();
+            Metrics.CONN_CLOSED.inc();
+            onClosed();
+        }
+    }
 
-                // === AIM SELF|ENEMY ===
-                if (line.startsWith(Protocol.AIM + " ")) {
-                    String target = line.substring(Protocol.AIM.length() + 1).trim();
-                    if (room != null) room.onAim(this, target);
-                    continue;
-                }
+    // 연결이 끊겼을 때 (NIO 모드에서는 NioConnection.close()가 호출)
+    void onClosed() {
+        Room w = watching;
+        if (w != null) w.unwatch(this);
+        Room r = room;
+        if (r != null) r.onLeave(this); // 세션은 남겨 둔다 (게임 중이면 RESUME으로 돌아올 수 있다)
+        else if (rooms != null) rooms.sessions().close(this);
+    }
 
-                // === FIRE ===
-                if (line.equals(Protocol.FIRE)) {
-                    if (room != null) room.onFire(this);
-                    continue;
-                }
+    // 바이너리 프레임 1개를 처리. 압축 opcode가 아니면 텍스트 줄과 같은 경로로
+    void handleMessage(Message m) {
+        if (m.op() != Protocol.OP_TEXT) { // 텍스트는 handleLine에서 명령별로 센다
+            lastInput = System.nanoTime();
+            Metrics.messageIn(m.op());
+        }
+        switch (m.op()) {
+            case Protocol.OP_READY:
+                if (room != null) room.onReady(this);
+                break;
+            case Protocol.OP_AIM:
+                if (room != null) room.onAim(this, m.arg(0) != 0);
+                break;
+            case Protocol.OP_FIRE:
+                if (room != null) room.onFire(this);
+                break;
+            case Protocol.OP_TEXT:
+                handleLine(lineCodec.set(m.line()));
+                break;
+            default:
+                break; // 서버→클라 전용 opcode는 무시
+        }
+    }
 
-                // (확장 여지) 기타 프로토콜
+    // 한 줄(개행 제외)을 해석해 Room에 전달
+    void handleLine(String line) {
+        handleLine(lineCodec.set(line));
+    }
+
+    // 명령 판별은 LineCodec.command() 한 번 + switch. 게임 명령은 문자열을 만들지 않는다
+    void handleLine(LineCodec line) {
+        Room r = room;
+        int cmd = line.command();
+        lastInput = System.nanoTime(); // PONG을 포함해 모든 줄 (PONG 자체는 아래 default에서 무시)
+        Metrics.messageIn(cmd);
+        switch (cmd) {
+            // === CHAT <text> ===
+            case LineCodec.CMD_CHAT: {
+                if (r == null) return;
+                if (!chatAllowed()) { RoomChat.LIMITED.inc(); send(Protocol.CHAT_LIMITED); return; }
+                String msg = line.rest(Protocol.CHAT.length() + 1);
+                if (!msg.isEmpty()) r.broadcastChat(nickname, msg);
+                return;
             }
-        } catch (IOException ignore) {
-        } finally {
-            try { socket.close(); } catch (IOException ignored) {}
+
+            // === 로비: ROOM_LIST / ROOM_CREATE / ROOM_JOIN <id> ===
+            case LineCodec.CMD_ROOM_LIST:
+                if (rooms != null) rooms.sendList(this);
+                return;
+            case LineCodec.CMD_ROOM_CREATE:
+                if (rooms != null) rooms.createFor(this);
+                return;
+            case LineCodec.CMD_ROOM_JOIN:
+                if (rooms != null) rooms.join(this, line.rest(Protocol.ROOM_JOIN.length() + 1));
+                return;
+
+            // === 관전: SPECTATE <id> / SPECTATE_LEAVE ===
+            case LineCodec.CMD_SPECTATE:
+                if (rooms != null) rooms.spectate(this, line.rest(Protocol.SPECTATE.length() + 1));
+                return;
+            case LineCodec.CMD_SPECTATE_LEAVE: {
+                Room w = watching;
+                if (w != null) w.unwatch(this);
+                return;
+            }
+
+            // === [Req 3] READY ===
+            case LineCodec.CMD_READY:
+                if (r != null) r.onReady(this);
+                return;
+
+            // === AIM SELF|ENEMY ===
+            case LineCodec.CMD_AIM:
+                if (r != null) r.onAim(this, line.argEquals(Protocol.AIM.length() + 1, "SELF"));
+                return;
+
+            // === FIRE ===
+            case LineCodec.CMD_FIRE:
+                if (r != null) r.onFire(this);
+                return;
+
+            default:
+                // (확장 여지) 기타 프로토콜
+                return;
         }
     }
 
-    public void send(String line) { out.println(line); }
-}
\ No newline at end of file
+    private boolean chatAllowed() {
+        long now = System.nanoTime();
+        long tat = Math.max(chatTat, now);
+        if (tat - now > (CHAT_BURST - 1) * CHAT_INTERVAL) return false; // 토큰이 바닥남
+        chatTat = tat + CHAT_INTERVAL;
+        return true;
+    }
+
+    /** 한 줄 보내기 (바로 flush) */
+    public void send(String line) {
+        queue(Message.text(line));
+        outbound.flush();
+    }
+
+    /** 쌓기만 하고 flush()에서 한꺼번에 전송 (Room 액터가 이벤트 단위로 묶을 때) */
+    void queue(Message m) {
+        Metrics.messageOut(m.op());
+        outbound.queue(binary ? m.frame() : m.lineBytes());
+    }
+    void flush() { outbound.flush(); }
+
+    /** 이미 인코딩된 여러 줄 묶음 (RoomChat). 연결 형식에 맞는 쪽을 그대로 쌓는다 */
+    void queueEncoded(byte[] text, byte[] bin, int lines) {
+        Metrics.messageOut(Protocol.OP_TEXT, lines);
+        outbound.queue(binary ? bin : text);
+    }
+    /** 연결을 끊는다 (수신 루프가 끝나며 onClosed. NIO는 리액터 스레드에서 닫는다) */
+    void close() {
+        if (conn != null) conn.closeLater();
+        else outbound.close();
+    }
+
+    /** 마지막 입력 이후 지난 시간 (하트비트) */
+    long idleMillis() { return (System.nanoTime() - lastInput) / 1_000_000; }
+    public int pendingOutbound() { return outbound.pendingLines(); }
+    long backlogBytes() { return outbound.backlogBytes(); }
+
+    // BLOCKING/VIRTUAL/LOOPBACK 모드: 연결 스트림에 직접 쓴다 (writer 스레드에서만 호출)
+    private static final class LinkSink implements Outbound.Sink {
+        private final Transport.Link link;
+        private final OutputStream os;
+
+        LinkSink(Transport.Link link) throws IOException {
+            this.link = link;
+            this.os = link.out();
+        }
+
+        @Override public void write(byte[] data, int len) throws IOException {
+            os.write(data, 0, len);
+            os.flush();
+        }
+        @Override public long backlogBytes() { return 0; }
+        @Override public void close() {
+            link.close(); // 수신 루프가 끝나며 onClosed() 호출
+        }
+    }
+}
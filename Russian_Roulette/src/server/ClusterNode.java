@@ -0,0 +1,117 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * 이 서버를 Directory에 노드로 등록하고 loadMs마다 부하(플레이어 수, 방 수)를 알린다.
+ * 답으로 오는 NODE_TABLE을 들고 있다가, 다른 노드의 방 번호로 들어온 ROOM_JOIN/SPECTATE를
+ * 그 노드로 보낼 때(REDIRECT) 쓴다. 디렉터리가 죽으면 게임은 그대로 돌고, 다시 뜰 때까지 재접속을 시도한다.
+ */
+final class ClusterNode {
+    private static final long RETRY_MS = 2_000;
+
+    private final int nodeId;
+    private final String advertiseHost;
+    private final int port;
+    private final String directoryHost;
+    private final int directoryPort;
+    private final long loadMs;
+    private final Consumer<String> log;
+    private final IntSupplier players, rooms;
+    private volatile Map<Integer, InetSocketAddress> table = Map.of(); // 노드 번호 → 주소 (자기 포함)
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Thread thread;
+
+    ClusterNode(int nodeId, String advertiseHost, int port, String directory, long loadMs,
+                Consumer<String> log, IntSupplier players, IntSupplier rooms) {
+        int colon = directory.lastIndexOf(':');
+        this.nodeId = nodeId;
+        this.advertiseHost = advertiseHost;
+        this.port = port;
+        this.directoryHost = directory.substring(0, colon);
+        this.directoryPort = Integer.parseInt(directory.substring(colon + 1));
+        this.loadMs = loadMs;
+        this.log = log;
+        this.players = players;
+        this.rooms = rooms;
+    }
+
+    int nodeId() { return nodeId; }
+
+    /** 다른 노드의 주소. 모르거나 자기 자신이면 null */
+    InetSocketAddress addressOf(int node) {
+        return (node == nodeId) ? null : table.get(node);
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "ClusterNode");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        Socket s = socket;
+        try { if (s != null) s.close(); } catch (IOException ignored) {} // 디렉터리는 연결이 끊기면 바로 목록에서 뺀다
+        if (thread != null) thread.interrupt();
+    }
+
+    private void run() {
+        boolean warned = false;
+        while (running) {
+            try (Socket s = new Socket(directoryHost, directoryPort)) {
+                socket = s;
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), true);
+                out.println(Directory.NODE_UP + " " + nodeId + " " + advertiseHost + " " + port);
+                String reply = in.readLine();
+                if (!Directory.NODE_OK.equals(reply)) {
+                    log.accept("[Cluster] directory refused node " + nodeId + ": " + reply);
+                } else {
+                    log.accept("[Cluster] node " + nodeId + " registered with " + directoryHost + ":" + directoryPort);
+                    warned = false;
+                    while (running) {
+                        out.println(Directory.NODE_LOAD + " " + players.getAsInt() + " " + rooms.getAsInt());
+                        String line = in.readLine();
+                        if (line == null) break;
+                        if (line.startsWith(Directory.NODE_TABLE)) table = parseTable(line);
+                        Thread.sleep(loadMs);
+                    }
+                }
+            } catch (IOException e) {
+                if (running && !warned) log.accept("[Cluster] directory unavailable: " + e.getMessage());
+                warned = true;
+            } catch (InterruptedException e) {
+                return;
+            }
+            table = Map.of(); // 모르는 노드로 보내지 않는다
+            try { Thread.sleep(RETRY_MS); } catch (InterruptedException e) { return; }
+        }
+    }
+
+    // NODE_TABLE 1=127.0.0.1:7777 2=127.0.0.1:7778
+    private static Map<Integer, InetSocketAddress> parseTable(String line) {
+        Map<Integer, InetSocketAddress> m = new HashMap<>();
+        String[] a = line.split("\\s+");
+        for (int i = 1; i < a.length; i++) {
+            int eq = a[i].indexOf('='), colon = a[i].lastIndexOf(':');
+            if (eq < 0 || colon < eq) continue;
+            m.put(Integer.parseInt(a[i].substring(0, eq)),
+                    InetSocketAddress.createUnresolved(a[i].substring(eq + 1, colon), Integer.parseInt(a[i].substring(colon + 1))));
+        }
+        return m;
+    }
+}
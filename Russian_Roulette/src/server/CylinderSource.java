@@ -0,0 +1,83 @@
+package server;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * 탄창 내용을 만드는 난수원. 값은 6비트 (bit i = i번째 칸이 실탄).
+ * 방마다 forRoom()으로 받은 IntSupplier를 Room 액터 안에서만 쓰므로 공유 상태(CAS)가 없다.
+ *
+ * SPLITTABLE: 방마다 SplittableRandom. 시드 = f(서버 마스터 시드, 방 번호)라서
+ *             마스터 시드만 알면 어떤 방의 탄창이든 그대로 다시 만들 수 있다 (재생, 퍼징).
+ * SECURE    : SecureRandom (예측 불가, 공정성 우선). 스레드별로 BLOCK 바이트씩 한 번에 받아
+ *             재장전마다 시스템 호출이 생기지 않게 한다.
+ */
+public interface CylinderSource {
+    enum Mode { SPLITTABLE, SECURE }
+
+    /** 방 하나 전용 난수 (그 방의 액터에서만 호출) */
+    IntSupplier forRoom(long roomId);
+
+    /** 로그용 설명 (모드와 시드) */
+    String describe();
+
+    static CylinderSource of(Mode mode, long masterSeed) {
+        return (mode == Mode.SECURE) ? new Secure() : new Seeded(masterSeed);
+    }
+
+    /** 시드를 정하지 않았을 때: 시작할 때마다 새 마스터 시드 (로그에 남겨 두면 재현 가능) */
+    static long randomSeed() {
+        return new SecureRandom().nextLong();
+    }
+
+    // ==== SPLITTABLE ====
+    final class Seeded implements CylinderSource {
+        private final long master;
+
+        Seeded(long master) { this.master = master; }
+
+        @Override
+        public IntSupplier forRoom(long roomId) {
+            SplittableRandom r = new SplittableRandom(mix64(master ^ (roomId * 0x9E3779B97F4A7C15L)));
+            return () -> r.nextInt(64);
+        }
+
+        @Override
+        public String describe() { return "SPLITTABLE seed=" + master; }
+
+        // SplitMix64 finalizer: 비슷한 방 번호끼리도 시드가 고르게 퍼지도록
+        private static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    // ==== SECURE ====
+    final class Secure implements CylinderSource {
+        private static final int BLOCK = 512; // 한 번에 받는 바이트 = 재장전 512번
+
+        private final SecureRandom rng = new SecureRandom();
+        // Room 액터는 스케줄러 스레드 위에서 돌므로 스레드별 블록이면 락이 필요 없다
+        private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+        private final class Block {
+            final byte[] bytes = new byte[BLOCK];
+            int pos = BLOCK;
+
+            int next() {
+                if (pos == BLOCK) { rng.nextBytes(bytes); pos = 0; }
+                return bytes[pos++] & 63; // 256은 64의 배수이므로 하위 6비트도 균등
+            }
+        }
+
+        @Override
+        public IntSupplier forRoom(long roomId) {
+            return () -> blocks.get().next();
+        }
+
+        @Override
+        public String describe() { return "SECURE"; }
+    }
+}
@@ -0,0 +1,181 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 클러스터 디렉터리 (매칭 브로커). 게임 서버 노드들이 붙어서 자기 주소와 부하를 알리고,
+ * 클라이언트는 접속 전에 ROUTE를 물어 가장 한가한 노드로 간다.
+ * 게임 트래픽은 지나가지 않으므로 프로세스 하나로 충분하다 (같은 호스트에서 시험할 때도 그대로).
+ *
+ *   java -cp bin server.Directory 7700
+ *   java -cp bin server.ServerMain --port=7777 --cluster.directory=127.0.0.1:7700 --cluster.node=1
+ *   java -cp bin server.ServerMain --port=7778 --cluster.directory=127.0.0.1:7700 --cluster.node=2
+ *   java -cp bin client.LoadGenerator --directory=127.0.0.1:7700 --players=200
+ *
+ * 줄 단위 텍스트 프로토콜 (연결 하나에 역할 하나):
+ *   노드:  NODE_UP <id> <host> <port> → NODE_OK | NODE_DUP (같은 번호의 노드가 살아 있음, 연결을 끊는다)
+ *          이후 주기적으로 NODE_LOAD <플레이어 수> <방 수> → NODE_TABLE <id>=<host>:<port> ...
+ *          연결이 끊기거나 STALE_MS 동안 아무것도 안 오면 목록에서 뺀다.
+ *   조회:  ROUTE → ROUTE <id> <host> <port> | ROUTE_NONE,  WHERE <id> → (같은 형식),  NODES → NODE ... 줄들 + END
+ */
+public final class Directory {
+    static final String NODE_UP    = "NODE_UP";
+    static final String NODE_OK    = "NODE_OK";
+    static final String NODE_DUP   = "NODE_DUP";
+    static final String NODE_LOAD  = "NODE_LOAD";
+    static final String NODE_TABLE = "NODE_TABLE";
+    public static final String ROUTE      = "ROUTE";
+    public static final String ROUTE_NONE = "ROUTE_NONE";
+    static final String WHERE      = "WHERE";
+    static final String NODES      = "NODES";
+
+    static final int STALE_MS = 5_000; // 노드 부하 보고가 이만큼 끊기면 죽은 것으로 본다 (cluster.load.ms는 이 절반 미만)
+
+    /** 등록된 노드 하나. 부하는 마지막 보고값 + 그 뒤로 이쪽이 보낸 플레이어 수 */
+    private static final class Node {
+        final int id;
+        final String host;
+        final int port;
+        volatile int players, rooms;
+        final AtomicInteger routed = new AtomicInteger(); // 보고 사이에 ROUTE로 보낸 수 (한 노드로 몰리지 않도록)
+
+        Node(int id, String host, int port) {
+            this.id = id;
+            this.host = host;
+            this.port = port;
+        }
+
+        int load() { return players + routed.get(); }
+
+        String address() { return id + " " + host + " " + port; }
+    }
+
+    private final Consumer<String> log;
+    private final ConcurrentHashMap<Integer, Node> nodes = new ConcurrentHashMap<>();
+    private final ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor();
+    private ServerSocket server;
+    private volatile boolean running;
+
+    public Directory(Consumer<String> log) {
+        this.log = log;
+    }
+
+    public void start(int port) throws IOException {
+        server = new ServerSocket(port);
+        running = true;
+        new Thread(this::acceptLoop, "DirectoryAccept").start(); // 데몬이 아니므로 main이 끝나도 계속 돈다
+        log.accept("[Directory] Listening on " + server.getLocalPort());
+    }
+
+    public void stop() {
+        running = false;
+        try { if (server != null) server.close(); } catch (IOException ignored) {}
+        exec.shutdownNow();
+    }
+
+    public int port() { return server.getLocalPort(); }
+
+    private void acceptLoop() {
+        try {
+            while (running) {
+                Socket s = server.accept();
+                exec.execute(() -> serve(s));
+            }
+        } catch (IOException e) {
+            if (running) log.accept("[Directory] accept error: " + e.getMessage());
+        }
+    }
+
+    private void serve(Socket s) {
+        Node registered = null;
+        try (s) {
+            s.setSoTimeout(STALE_MS);
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] a = line.trim().split("\\s+");
+                switch (a[0]) {
+                    case NODE_UP -> {
+                        if (registered != null || a.length < 4) return;
+                        Node n = new Node(Integer.parseInt(a[1]), a[2], Integer.parseInt(a[3]));
+                        if (n.id <= 0 || nodes.putIfAbsent(n.id, n) != null) { out.println(NODE_DUP); return; }
+                        registered = n;
+                        out.println(NODE_OK);
+                        log.accept("[Directory] node " + n.id + " up at " + n.host + ":" + n.port);
+                    }
+                    case NODE_LOAD -> {
+                        if (registered == null || a.length < 3) return;
+                        registered.players = Integer.parseInt(a[1]);
+                        registered.rooms = Integer.parseInt(a[2]);
+                        // 보낸 플레이어 중 접속을 마친 만큼은 이제 보고값에 들어 있다. 아직 오는 중일 수도 있으니 반만 줄인다
+                        registered.routed.getAndUpdate(r -> r / 2);
+                        out.println(table());
+                    }
+                    case ROUTE -> out.println(route(leastLoaded(), true));
+                    case WHERE -> out.println(route(a.length > 1 ? nodes.get(Integer.parseInt(a[1])) : null, false));
+                    case NODES -> {
+                        for (Node n : new TreeMap<>(nodes).values()) {
+                            out.println("NODE " + n.address() + " PLAYERS=" + n.players + " ROOMS=" + n.rooms + " ROUTED=" + n.routed.get());
+                        }
+                        out.println("END");
+                    }
+                    default -> { return; }
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            if (registered != null) log.accept("[Directory] node " + registered.id + " stale");
+        } catch (IOException | RuntimeException ignored) {
+            // 끊김 또는 잘못된 줄: 연결만 닫는다
+        } finally {
+            if (registered != null && nodes.remove(registered.id, registered)) {
+                log.accept("[Directory] node " + registered.id + " down");
+            }
+        }
+    }
+
+    // 보고된 플레이어 수 + 그 뒤로 보낸 수가 가장 적은 노드 (같으면 번호가 작은 쪽)
+    private Node leastLoaded() {
+        Node best = null;
+        for (Node n : nodes.values()) {
+            if (best == null || n.load() < best.load() || (n.load() == best.load() && n.id < best.id)) best = n;
+        }
+        return best;
+    }
+
+    private static String route(Node n, boolean count) {
+        if (n == null) return ROUTE_NONE;
+        if (count) n.routed.incrementAndGet();
+        return ROUTE + " " + n.address();
+    }
+
+    private String table() {
+        StringBuilder sb = new StringBuilder(NODE_TABLE);
+        for (Map.Entry<Integer, Node> e : new TreeMap<>(nodes).entrySet()) {
+            sb.append(' ').append(e.getKey()).append('=').append(e.getValue().host).append(':').append(e.getValue().port);
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7700;
+        Directory d = new Directory(System.out::println);
+        d.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(d::stop, "DirectoryShutdown"));
+    }
+}
@@ -0,0 +1,78 @@
+package server;
+
+import java.util.SplittableRandom;
+
+/**
+ * 게임 규칙 자체 (소켓, 방, 메시지 없이). Room 액터와 Simulator가 같은 코드를 쓴다.
+ * 상태는 RoomState의 long 하나이고 모든 연산은 새 long을 돌려줄 뿐이라 한 판을 돌려도 객체가 생기지 않는다.
+ */
+final class GameEngine {
+
+    /**
+     * 규칙 값. 체력 1~7, 탄창 1~6칸 (RoomState 비트 폭), bulletOdds = 칸마다 실탄일 확률.
+     * blankSelfKeepsTurn: 자기에게 쏜 공탄이면 턴 유지 ([Req 8], 실제 서버 규칙)
+     */
+    record Rules(int hp, int chambers, boolean blankSelfKeepsTurn, double bulletOdds) {
+        static final Rules STANDARD = new Rules(RoomState.MAX_HP, RoomState.CHAMBERS, true, 0.5);
+
+        Rules {
+            if (hp < 1 || hp > 7) throw new IllegalArgumentException("hp must be 1..7");
+            if (chambers < 1 || chambers > RoomState.CHAMBERS) throw new IllegalArgumentException("chambers must be 1.." + RoomState.CHAMBERS);
+            if (!(bulletOdds > 0 && bulletOdds <= 1)) throw new IllegalArgumentException("bullet odds must be in (0, 1]");
+        }
+
+        @Override
+        public String toString() {
+            return "hp=" + hp + " chambers=" + chambers + " bullet-odds=" + bulletOdds + " keep-turn=" + blankSelfKeepsTurn;
+        }
+    }
+
+    private GameEngine() {}
+
+    /** 새 게임: 양쪽 체력 가득, P1 턴, 빈 탄창 (쏘기 전에 reload) */
+    static long initial(Rules r) {
+        return RoomState.initial(r.hp());
+    }
+
+    /** 새 탄창. bits의 아래 r.chambers()비트 = 칸마다 실탄 여부 */
+    static long reload(Rules r, long s, int bits) {
+        return RoomState.reload(s, bits, r.chambers());
+    }
+
+    /** 규칙의 확률대로 탄창 하나 (Simulator). bulletOdds가 1/2이면 난수 한 번 */
+    static int cylinder(Rules r, SplittableRandom rnd) {
+        if (r.bulletOdds() == 0.5) return rnd.nextInt() & ((1 << r.chambers()) - 1);
+        int bits = 0;
+        for (int i = 0; i < r.chambers(); i++) {
+            if (rnd.nextDouble() < r.bulletOdds()) bits |= 1 << i;
+        }
+        return bits;
+    }
+
+    /**
+     * 턴인 쪽이 지금 조준대로 한 발 쏜 뒤의 상태.
+     * 실탄이면 맞은 쪽 체력 -1 (0이 되면 GAME_OVER 비트), 아니면 규칙대로 턴 교대.
+     * 탄창이 비어도 재장전하지 않는다 (난수원은 호출한 쪽 것: Room은 CylinderSource, Simulator는 스레드별 난수)
+     */
+    static long fire(Rules r, long s) {
+        int shooter = RoomState.turn(s);
+        boolean self = RoomState.aimSelf(s, shooter);
+        boolean bullet = RoomState.loaded(s);
+        s = RoomState.advance(s);
+        if (bullet) {
+            int target = self ? shooter : 3 - shooter;
+            int hp = RoomState.hp(s, target) - 1;
+            s = RoomState.withHp(s, target, hp);
+            if (hp <= 0) return RoomState.withGameOver(s);
+        }
+        // 기본은 턴 교대, 자기에게 공탄을 쏜 경우만 턴 유지
+        boolean keep = !bullet && self && r.blankSelfKeepsTurn();
+        return keep ? s : RoomState.withTurn(s, 3 - shooter);
+    }
+
+    /** 끝난 게임의 승자 (1, 2, 0 = 무승부) */
+    static int winner(long s) {
+        int hp1 = RoomState.hp(s, 1), hp2 = RoomState.hp(s, 2);
+        return (hp1 <= 0 && hp2 <= 0) ? 0 : (hp1 <= 0 ? 2 : 1);
+    }
+}
@@ -0,0 +1,266 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * 방 이벤트 리플레이 저널 (추가만 하는 바이너리 로그).
+ * 파일은 journal-0000000001.seg 처럼 번호 붙은 세그먼트로 나뉘고, 각 세그먼트는 메모리 매핑되어
+ * append()는 매핑된 버퍼에 복사만 한다. 디스크 동기화(force)는 "JournalFlush" 스레드가
+ * flushMs마다 그동안 쌓인 구간을 한 번에 처리한다 (group commit). 그래서 onFire 경로에는 I/O가 없다.
+ *
+ * 레코드: [u16 전체 길이][u8 종류][i64 방 번호][i64 epoch ms][내용]  (빅 엔디언)
+ * 길이 0 = 세그먼트의 끝. 읽기/재생은 JournalReader.
+ */
+public final class Journal implements AutoCloseable {
+
+    /** 레코드를 받는 곳. 보통은 Journal, 재생 검증 때는 메모리 버퍼 */
+    interface Appender { void append(byte[] b, int len); }
+
+    // ==== 레코드 종류 ====
+    static final int CREATE    = 1;  // u8 p2 있음, str p1, [str p2]
+    static final int JOIN      = 2;  // str p2
+    static final int CYLINDER  = 3;  // u8 비트 (bit i = i번째 칸이 실탄)
+    static final int READY     = 4;  // u8 who
+    static final int START     = 5;
+    static final int AIM       = 6;  // u8 who, u8 self
+    static final int FIRE      = 7;  // u8 who
+    static final int RESOLVE   = 8;  // u8 bullet, self, hp1, hp2, bLeft, kLeft, idx
+    static final int TURN      = 9;  // u8 who
+    static final int GAME_OVER = 10; // u8 win (0=DRAW)
+    static final int LEAVE     = 11; // u8 who
+    static final int CLOSE     = 12; // 레지스트리에서 제거됨
+    static final int RESUME    = 13; // u8 who (새 연결이 그 자리를 이어받음. 게임 상태는 바뀌지 않는다)
+    static final int TIMEOUT   = 14; // u8 kind (Room.TIMEOUT_READY / TIMEOUT_TURN). 재생 때 입력으로 다시 넣는다
+
+    static final int HEADER = 2 + 1 + 8 + 8;
+    static final int MAX_NAME = 64; // 닉네임은 UTF-8로 이 바이트 수까지만 기록
+
+    static final String PREFIX = "journal-", SUFFIX = ".seg";
+
+    private static final Metrics.Counter BYTES = Metrics.counter("journal.bytes");
+    private static final Metrics.Histogram FORCE_TIME = Metrics.histogram("journal.force.time", "us");
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long flushNanos;
+
+    // 아래 필드는 this 락 안에서만 (append는 memcpy뿐이라 락 구간이 짧다)
+    private FileChannel channel;
+    private MappedByteBuffer seg;
+    private long segNo;
+    private int pos = 0;
+    private int forced = 0;
+    private final Object forceLock = new Object(); // 락 밖 force()와 세그먼트 잘라내기가 겹치지 않도록
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private Journal(Path dir, int segmentBytes, int flushMs) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.flushNanos = flushMs * 1_000_000L;
+        Files.createDirectories(dir);
+        List<Path> old = segments(dir);
+        segNo = old.isEmpty() ? 0 : number(old.get(old.size() - 1));
+        roll();
+        flusher = new Thread(this::flushLoop, "JournalFlush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** dir에 새 세그먼트부터 기록을 시작한다 (이전 세그먼트는 그대로 둔다) */
+    public static Journal open(Path dir, int segmentBytes, int flushMs) throws IOException {
+        return new Journal(dir, segmentBytes, flushMs);
+    }
+
+    /** 번호순으로 정렬된 세그먼트 파일 목록 */
+    static List<Path> segments(Path dir) throws IOException {
+        List<Path> list = new ArrayList<>();
+        try (Stream<Path> s = Files.list(dir)) {
+            s.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(PREFIX) && n.endsWith(SUFFIX);
+            }).forEach(list::add);
+        }
+        list.sort((a, b) -> Long.compare(number(a), number(b)));
+        return list;
+    }
+
+    private static long number(Path p) {
+        String n = p.getFileName().toString();
+        try { return Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())); }
+        catch (NumberFormatException e) { return -1; }
+    }
+
+    // 이전 세그먼트를 동기화하고 잘라낸 뒤 다음 세그먼트를 매핑한다 (락 안에서)
+    private void roll() throws IOException {
+        closeSegment();
+        segNo++;
+        Path p = dir.resolve(String.format(Locale.ROOT, "%s%010d%s", PREFIX, segNo, SUFFIX));
+        channel = FileChannel.open(p, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        seg = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        seg.order(ByteOrder.BIG_ENDIAN);
+        pos = 0;
+        forced = 0;
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) return;
+        synchronized (forceLock) {
+            if (pos > forced) seg.force(forced, pos - forced);
+            channel.truncate(pos); // 남은 0 영역은 버린다
+        }
+        channel.close();
+        channel = null;
+        seg = null;
+    }
+
+    /** 레코드 묶음 하나를 추가한다. 한 묶음은 세그먼트를 넘어가지 않는다 */
+    public synchronized void append(byte[] b, int len) {
+        if (channel == null || len > segmentBytes) return;
+        try {
+            if (pos + len > segmentBytes) roll();
+        } catch (IOException e) {
+            channel = null; // 디스크 오류: 게임은 계속, 기록만 중단
+            return;
+        }
+        seg.put(pos, b, 0, len);
+        pos += len;
+        BYTES.add(len);
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushNanos);
+            sync();
+        }
+    }
+
+    /** 지금까지 추가된 레코드를 디스크에 내린다 */
+    public void sync() {
+        MappedByteBuffer s;
+        int from, to;
+        synchronized (this) {
+            if (channel == null || pos == forced) return;
+            s = seg; from = forced; to = pos;
+            forced = pos;
+        }
+        long t0 = System.nanoTime();
+        synchronized (forceLock) {
+            s.force(from, to - from); // this 락 밖에서: 그동안 다른 방은 계속 추가한다
+        }
+        FORCE_TIME.record((System.nanoTime() - t0) / 1_000);
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try { closeSegment(); } catch (IOException ignored) {}
+    }
+
+    // ==== 방 하나의 기록기 ====
+
+    /**
+     * Room 액터 전용 (스레드 안전하지 않음). 명령 하나를 처리하는 동안 생긴 레코드를
+     * 자기 버퍼에 모았다가 commit()에서 한 번에 Appender로 넘긴다.
+     */
+    static final class Recorder {
+        private final Appender out;
+        private final long room;
+        private byte[] buf = new byte[512];
+        private int len = 0;
+
+        Recorder(Appender out, long room) {
+            this.out = out;
+            this.room = room;
+        }
+
+        void create(String p1, String p2) {
+            int at = begin(CREATE);
+            put(p2 != null ? 1 : 0);
+            putName(p1);
+            if (p2 != null) putName(p2);
+            end(at);
+        }
+
+        void join(String p2) {
+            int at = begin(JOIN);
+            putName(p2);
+            end(at);
+        }
+
+        void event(int type) {
+            end(begin(type));
+        }
+
+        void event(int type, int a) {
+            int at = begin(type);
+            put(a);
+            end(at);
+        }
+
+        void event(int type, int a, int b) {
+            int at = begin(type);
+            put(a); put(b);
+            end(at);
+        }
+
+        void resolve(boolean bullet, boolean self, int hp1, int hp2, int bLeft, int kLeft, int idx) {
+            int at = begin(RESOLVE);
+            put(bullet ? 1 : 0); put(self ? 1 : 0);
+            put(hp1); put(hp2); put(bLeft); put(kLeft); put(idx);
+            end(at);
+        }
+
+        /** 모아둔 레코드를 내보낸다 (액터가 명령 하나를 끝낼 때마다) */
+        void commit() {
+            if (len == 0) return;
+            out.append(buf, len);
+            len = 0;
+        }
+
+        private int begin(int type) {
+            if (buf.length - len < HEADER + 2 * MAX_NAME + 8) buf = Arrays.copyOf(buf, buf.length * 2);
+            int at = len;
+            len += 2;
+            put(type);
+            putLong(room);
+            putLong(System.currentTimeMillis());
+            return at;
+        }
+
+        private void end(int at) {
+            int n = len - at;
+            buf[at] = (byte) (n >>> 8);
+            buf[at + 1] = (byte) n;
+        }
+
+        private void put(int v) { buf[len++] = (byte) v; }
+
+        private void putLong(long v) {
+            for (int s = 56; s >= 0; s -= 8) buf[len++] = (byte) (v >>> s);
+        }
+
+        private void putName(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            int n = Math.min(b.length, MAX_NAME);
+            put(n);
+            System.arraycopy(b, 0, buf, len, n);
+            len += n;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal 세그먼트를 읽어 경기 기록을 보여주고, 입력만으로 경기를 다시 돌려 검증한다.
+ *
+ *   java -cp bin server.JournalReader journal list
+ *   java -cp bin server.JournalReader journal dump 42
+ *   java -cp bin server.JournalReader journal verify [42]
+ *
+ * verify: 기록된 탄창과 입력(READY/AIM/FIRE/LEAVE/TIMEOUT)을 소켓 없는 ClientHandler로 실제 Room에 같은 순서로 넣고,
+ * 재생 중 Room이 남긴 레코드가 원래 기록과 (시각/방 번호를 빼고) 바이트 단위로 같은지 비교한다.
+ */
+public class JournalReader {
+    /** 레코드 1개. body는 헤더 뒤의 내용 */
+    record Event(int type, long room, long time, byte[] body) {}
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: JournalReader <dir> [list | dump <room> | verify [room]]");
+            System.exit(2);
+        }
+        Map<Long, List<Event>> rooms = byRoom(readAll(Path.of(args[0])));
+        String cmd = args.length > 1 ? args[1] : "list";
+        switch (cmd) {
+            case "list":
+                rooms.forEach((id, ev) -> System.out.println(summary(id, ev)));
+                break;
+            case "dump": {
+                List<Event> ev = args.length > 2 ? rooms.get(Long.parseLong(args[2])) : null;
+                if (ev == null) { System.err.println("no such room"); System.exit(1); }
+                for (Event e : ev) System.out.println(TIME.format(Instant.ofEpochMilli(e.time())) + "  " + describe(e));
+                break;
+            }
+            case "verify": {
+                int ok = 0, bad = 0;
+                for (Map.Entry<Long, List<Event>> en : rooms.entrySet()) {
+                    if (args.length > 2 && en.getKey() != Long.parseLong(args[2])) continue;
+                    String err = replay(en.getValue());
+                    if (err == null) ok++;
+                    else { bad++; System.out.println("room " + en.getKey() + ": " + err); }
+                }
+                System.out.println("verified " + ok + " rooms, " + bad + " mismatches");
+                if (bad > 0) System.exit(1);
+                break;
+            }
+            default:
+                System.err.println("unknown command: " + cmd);
+                System.exit(2);
+        }
+    }
+
+    // ==== 읽기 ====
+
+    /** dir의 모든 세그먼트를 순서대로 읽는다. 길이 0 또는 잘린 레코드에서 그 세그먼트를 끝낸다 */
+    static List<Event> readAll(Path dir) throws IOException {
+        List<Event> out = new ArrayList<>();
+        for (Path p : Journal.segments(dir)) parse(ByteBuffer.wrap(Files.readAllBytes(p)), out);
+        return out;
+    }
+
+    static void parse(ByteBuffer b, List<Event> out) {
+        while (b.remaining() >= Journal.HEADER) {
+            int len = b.getShort(b.position()) & 0xFFFF;
+            if (len < Journal.HEADER || len > b.remaining()) return; // 끝 (또는 기록 중 끊긴 마지막 레코드)
+            b.getShort();
+            int type = b.get() & 0xFF;
+            long room = b.getLong();
+            long time = b.getLong();
+            byte[] body = new byte[len - Journal.HEADER];
+            b.get(body);
+            out.add(new Event(type, room, time, body));
+        }
+    }
+
+    static Map<Long, List<Event>> byRoom(List<Event> all) {
+        Map<Long, List<Event>> m = new LinkedHashMap<>();
+        for (Event e : all) m.computeIfAbsent(e.room(), k -> new ArrayList<>()).add(e);
+        return m;
+    }
+
+    // ==== 표시 ====
+
+    private static String summary(long id, List<Event> ev) {
+        String players = "?", result = "in progress", timeout = "";
+        int shots = 0;
+        for (Event e : ev) {
+            switch (e.type()) {
+                case Journal.CREATE: players = names(e.body()); break;
+                case Journal.JOIN: players = players + " vs " + name(e.body(), 0); break;
+                case Journal.RESOLVE: shots++; break;
+                case Journal.GAME_OVER: result = winner(e.body()[0]); break;
+                case Journal.CLOSE: if (result.equals("in progress")) result = "closed"; break;
+                case Journal.TIMEOUT: timeout = e.body()[0] == Room.TIMEOUT_READY ? " (ready timeout)" : " (turn timeout)"; break;
+                default: break;
+            }
+        }
+        long secs = (ev.get(ev.size() - 1).time() - ev.get(0).time()) / 1000;
+        return "room " + id + "  " + players + "  shots=" + shots + "  " + result + timeout + "  (" + secs + "s)";
+    }
+
+    static String describe(Event e) {
+        byte[] b = e.body();
+        String who = b.length > 0 ? "P" + b[0] : "";
+        switch (e.type()) {
+            case Journal.CREATE:    return "CREATE " + names(b);
+            case Journal.JOIN:      return "JOIN " + name(b, 0);
+            case Journal.CYLINDER:  return "CYLINDER " + cylinder(b[0]);
+            case Journal.READY:     return "READY " + who;
+            case Journal.START:     return "START";
+            case Journal.AIM:       return "AIM " + who + (b[1] != 0 ? " SELF" : " ENEMY");
+            case Journal.FIRE:      return "FIRE " + who;
+            case Journal.RESOLVE:   return "RESOLVE " + (b[0] != 0 ? "BULLET" : "BLANK") + (b[1] != 0 ? " SELF" : " ENEMY")
+                                           + " HP1=" + b[2] + " HP2=" + b[3] + " B=" + b[4] + " K=" + b[5] + " SHOT=" + b[6] + "/6";
+            case Journal.TURN:      return "TURN " + who;
+            case Journal.GAME_OVER: return "GAME_OVER " + winner(b[0]);
+            case Journal.LEAVE:     return "LEAVE " + who;
+            case Journal.CLOSE:     return "CLOSE";
+            case Journal.RESUME:    return "RESUME " + who;
+            case Journal.TIMEOUT:   return "TIMEOUT " + (b[0] == Room.TIMEOUT_READY ? "READY" : "TURN");
+            default:                return "? type=" + e.type();
+        }
+    }
+
+    private static String winner(int win) { return win == 0 ? "DRAW" : "WIN=P" + win; }
+
+    // 실탄 = X, 공탄 = o (0번 칸부터)
+    private static String cylinder(int bits) {
+        StringBuilder sb = new StringBuilder(6);
+        for (int i = 0; i < 6; i++) sb.append(((bits >>> i) & 1) == 1 ? 'X' : 'o');
+        return sb.toString();
+    }
+
+    private static String names(byte[] b) {
+        String p1 = name(b, 1);
+        return b[0] != 0 ? p1 + " vs " + name(b, 2 + (b[1] & 0xFF)) : p1;
+    }
+
+    private static String name(byte[] b, int at) {
+        return new String(b, at + 1, b[at] & 0xFF, StandardCharsets.UTF_8);
+    }
+
+    // ==== 재생 ====
+
+    /** 방 하나의 기록을 다시 돌린다. 같으면 null, 다르면 첫 차이 설명 */
+    static String replay(List<Event> original) {
+        List<byte[]> chunks = new ArrayList<>();
+        Journal.Appender mem = (b, len) -> chunks.add(Arrays.copyOf(b, len));
+        RoomRegistry reg = new RoomRegistry(s -> {}, Runnable::run, mem, null, 0); // 명령을 호출 스레드에서 바로 처리
+
+        Iterator<Integer> cylinders = original.stream()
+                .filter(e -> e.type() == Journal.CYLINDER).map(e -> e.body()[0] & 0xFF).iterator();
+        ClientHandler[] players = { null, null, null }; // [0] = 방에 없는 연결
+        Room room = null;
+
+        for (Event e : original) {
+            byte[] b = e.body();
+            ClientHandler who = (b.length > 0 && b[0] >= 0 && b[0] <= 2) ? players[b[0]] : null;
+            switch (e.type()) {
+                case Journal.CREATE:
+                    players[1] = player(name(b, 1));
+                    if (b[0] != 0) players[2] = player(name(b, 2 + (b[1] & 0xFF)));
+                    players[0] = player("?");
+                    room = reg.create(players[1], players[2], () -> cylinders.hasNext() ? cylinders.next() : 0);
+                    break;
+                case Journal.JOIN:
+                    players[2] = player(name(b, 0));
+                    if (room != null) room.join(players[2]);
+                    break;
+                case Journal.READY:
+                    if (room != null && who != null) room.onReady(who);
+                    break;
+                case Journal.AIM:
+                    if (room != null && who != null) room.onAim(who, b[1] != 0);
+                    break;
+                case Journal.FIRE:
+                    if (room != null && who != null) room.onFire(who);
+                    break;
+                case Journal.LEAVE:
+                    if (room != null && who != null) room.onLeave(who);
+                    break;
+                case Journal.TIMEOUT:
+                    if (room != null) room.timeout(b[0]);
+                    break;
+                default:
+                    break; // 나머지는 Room이 만들어내는 결과
+            }
+        }
+        if (room == null) return "no CREATE record";
+
+        List<Event> replayed = new ArrayList<>();
+        for (byte[] c : chunks) parse(ByteBuffer.wrap(c), replayed);
+        int n = Math.min(original.size(), replayed.size());
+        for (int i = 0; i < n; i++) {
+            Event a = original.get(i), r = replayed.get(i);
+            if (a.type() != r.type() || !Arrays.equals(a.body(), r.body())) {
+                return "event " + i + ": recorded " + describe(a) + ", replayed " + describe(r);
+            }
+        }
+        if (original.size() != replayed.size()) {
+            return "recorded " + original.size() + " events, replayed " + replayed.size();
+        }
+        return null;
+    }
+
+    private static ClientHandler player(String name) {
+        return new ClientHandler(new Outbound.Sink() {
+            @Override public void write(byte[] data, int len) {}
+            @Override public long backlogBytes() { return 0; }
+            @Override public void close() {}
+        }, name, false);
+    }
+}
@@ -0,0 +1,196 @@
+package server;
+
+/**
+ * 텍스트 Protocol 한 줄을 담아두고 다시 쓰는 버퍼 + 토크나이저.
+ * split()/substring() 없이 명령 판별과 KEY=숫자 값 파싱을 하므로
+ * 게임 명령(READY/AIM/FIRE)이나 FIRE_RESOLVE 같은 줄을 처리할 때 새 객체를 만들지 않는다.
+ * 한 스레드(수신 루프, 리액터, EDT)에서만 사용한다.
+ */
+public final class LineCodec implements CharSequence {
+    // 명령 코드 (게임 명령은 바이너리 opcode와 같은 값)
+    public static final int CMD_UNKNOWN     = 0;
+    public static final int CMD_READY       = Protocol.OP_READY;
+    public static final int CMD_AIM         = Protocol.OP_AIM;
+    public static final int CMD_FIRE        = Protocol.OP_FIRE;
+    public static final int CMD_CHAT        = 0x40;
+    public static final int CMD_ROOM_LIST   = 0x41;
+    public static final int CMD_ROOM_CREATE = 0x42;
+    public static final int CMD_ROOM_JOIN   = 0x43;
+    public static final int CMD_SPECTATE    = 0x44;
+    public static final int CMD_SPECTATE_LEAVE = 0x45;
+
+    private char[] chars = new char[256];
+    private int len = 0;
+
+    // ==== 채우기 ====
+
+    /** UTF-8 바이트를 디코딩해 담는다. 끝의 '\r'은 제거 */
+    public LineCodec set(byte[] buf, int off, int n) {
+        if (n > 0 && buf[off + n - 1] == '\r') n--;
+        ensure(n);
+        int end = off + n, j = 0;
+        for (int i = off; i < end; ) {
+            int b = buf[i++] & 0xFF;
+            if (b < 0x80) {                       // ASCII (대부분의 줄)
+                chars[j++] = (char) b;
+            } else if (b < 0xE0 && i < end) {     // 2바이트
+                chars[j++] = (char) (((b & 0x1F) << 6) | (buf[i++] & 0x3F));
+            } else if (b < 0xF0 && i + 1 < end) { // 3바이트 (한글)
+                chars[j++] = (char) (((b & 0x0F) << 12) | ((buf[i] & 0x3F) << 6) | (buf[i + 1] & 0x3F));
+                i += 2;
+            } else if (i + 2 < end) {             // 4바이트 → 서로게이트 쌍
+                int cp = ((b & 0x07) << 18) | ((buf[i] & 0x3F) << 12) | ((buf[i + 1] & 0x3F) << 6) | (buf[i + 2] & 0x3F);
+                i += 3;
+                ensure(j + 2 + (end - i));
+                chars[j++] = Character.highSurrogate(cp);
+                chars[j++] = Character.lowSurrogate(cp);
+            } else {
+                chars[j++] = '�';
+                i = end;
+            }
+        }
+        len = j;
+        return this;
+    }
+
+    public LineCodec set(String s) {
+        ensure(s.length());
+        s.getChars(0, s.length(), chars, 0);
+        len = s.length();
+        return this;
+    }
+
+    private void ensure(int n) {
+        if (chars.length < n) chars = new char[Math.max(n, chars.length * 2)];
+    }
+
+    // ==== CharSequence ====
+
+    @Override public int length() { return len; }
+    @Override public char charAt(int i) { return chars[i]; }
+    @Override public CharSequence subSequence(int s, int e) { return new String(chars, s, e - s); }
+    @Override public String toString() { return new String(chars, 0, len); }
+
+    public boolean isEmpty() { return len == 0; }
+
+    // ==== 판별 ====
+
+    public boolean equalsText(String s) {
+        return len == s.length() && startsWith(s);
+    }
+
+    public boolean startsWith(String s) {
+        return regionMatches(0, s, false);
+    }
+
+    /** s로 시작하고 바로 뒤가 공백인지 ("AIM SELF"는 AIM, "AIM_UPDATE"는 아님) */
+    public boolean startsWithWord(String s) {
+        return len > s.length() && chars[s.length()] == ' ' && startsWith(s);
+    }
+
+    private boolean regionMatches(int from, String s, boolean ignoreCase) {
+        if (from + s.length() > len) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char a = chars[from + i], b = s.charAt(i);
+            if (a != b && !(ignoreCase && Character.toUpperCase(a) == Character.toUpperCase(b))) return false;
+        }
+        return true;
+    }
+
+    /** 클라→서버 명령 판별 (prefix 비교를 한 번의 switch로) */
+    public int command() {
+        if (len == 0) return CMD_UNKNOWN;
+        switch (chars[0]) {
+            case 'R':
+                if (equalsText(Protocol.READY)) return CMD_READY;
+                if (equalsText(Protocol.ROOM_LIST)) return CMD_ROOM_LIST;
+                if (equalsText(Protocol.ROOM_CREATE)) return CMD_ROOM_CREATE;
+                if (startsWithWord(Protocol.ROOM_JOIN)) return CMD_ROOM_JOIN;
+                return CMD_UNKNOWN;
+            case 'A':
+                return startsWithWord(Protocol.AIM) ? CMD_AIM : CMD_UNKNOWN;
+            case 'F':
+                return equalsText(Protocol.FIRE) ? CMD_FIRE : CMD_UNKNOWN;
+            case 'C':
+                return startsWithWord(Protocol.CHAT) ? CMD_CHAT : CMD_UNKNOWN;
+            case 'S':
+                if (equalsText(Protocol.SPECTATE_LEAVE)) return CMD_SPECTATE_LEAVE;
+                return startsWithWord(Protocol.SPECTATE) ? CMD_SPECTATE : CMD_UNKNOWN;
+            default:
+                return CMD_UNKNOWN;
+        }
+    }
+
+    /** 명령 뒤 인자(from 이후 첫 단어)가 word와 같은지 (대소문자 무시) */
+    public boolean argEquals(int from, String word) {
+        int s = skipSpaces(from), e = trimEnd();
+        return e - s == word.length() && regionMatches(s, word, true);
+    }
+
+    // ==== KEY=VALUE ====
+
+    /** " KEY=" 토큰을 찾아 값 시작 위치를 돌려준다. 없으면 -1 */
+    public int valueIndex(String key) {
+        for (int i = 0; i < len; ) {
+            // 토큰 시작
+            while (i < len && chars[i] == ' ') i++;
+            if (regionMatches(i, key, false) && i + key.length() < len && chars[i + key.length()] == '=') {
+                return i + key.length() + 1;
+            }
+            while (i < len && chars[i] != ' ') i++;
+        }
+        return -1;
+    }
+
+    /** KEY=정수 값을 읽는다. 없거나 숫자가 아니면 def */
+    public int intValue(String key, int def) {
+        int i = valueIndex(key);
+        return (i < 0) ? def : parseInt(i, def);
+    }
+
+    /** from 위치부터 숫자를 읽는다 (공백, '/' 등에서 멈춤) */
+    public int parseInt(int from, int def) {
+        int i = from, v = 0;
+        boolean neg = false;
+        if (i < len && chars[i] == '-') { neg = true; i++; }
+        int start = i;
+        while (i < len && chars[i] >= '0' && chars[i] <= '9') v = v * 10 + (chars[i++] - '0');
+        if (i == start) return def;
+        return neg ? -v : v;
+    }
+
+    /** KEY=값이 word와 같은지 (할당 없음) */
+    public boolean valueEquals(String key, String word) {
+        int i = valueIndex(key);
+        if (i < 0) return false;
+        int e = i;
+        while (e < len && chars[e] != ' ') e++;
+        return e - i == word.length() && regionMatches(i, word, false);
+    }
+
+    /** KEY=값 문자열 (닉네임처럼 꼭 문자열이 필요할 때만) */
+    public String stringValue(String key) {
+        int i = valueIndex(key);
+        if (i < 0) return null;
+        int e = i;
+        while (e < len && chars[e] != ' ') e++;
+        return new String(chars, i, e - i);
+    }
+
+    /** from 이후 나머지 (앞뒤 공백 제거). 채팅 본문 등 */
+    public String rest(int from) {
+        int s = skipSpaces(from), e = trimEnd();
+        return (s >= e) ? "" : new String(chars, s, e - s);
+    }
+
+    private int skipSpaces(int i) {
+        while (i < len && chars[i] <= ' ') i++;
+        return i;
+    }
+
+    private int trimEnd() {
+        int e = len;
+        while (e > 0 && chars[e - 1] <= ' ') e--;
+        return e;
+    }
+}
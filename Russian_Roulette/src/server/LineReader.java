@@ -0,0 +1,89 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * BLOCKING/VIRTUAL 모드 수신용 버퍼 스트림.
+ * BufferedReader.readLine()처럼 줄마다 String을 만들지 않고 LineCodec 하나를 계속 채운다.
+ * InputStream이기도 하므로 핸드셰이크 뒤 바이너리 모드로 바뀌어도 버퍼에 남은 바이트를 잃지 않는다.
+ */
+final class LineReader extends InputStream {
+    private static final int MAX_LINE = 8 * 1024;
+
+    private final InputStream in;
+    private final byte[] buf = new byte[8 * 1024];
+    private int pos = 0, lim = 0;
+
+    // 버퍼 경계에 걸친 줄을 이어 붙이는 곳
+    private byte[] carry = new byte[256];
+
+    LineReader(InputStream in) { this.in = in; }
+
+    /** 한 줄을 out에 채운다. 연결이 끝났으면 false */
+    boolean readLine(LineCodec out) throws IOException {
+        int carried = 0;
+        while (true) {
+            if (pos == lim && !fill()) {
+                if (carried == 0) return false;
+                out.set(carry, 0, carried); // 개행 없이 끝난 마지막 줄
+                return true;
+            }
+            int nl = indexOf('\n');
+            if (nl >= 0) {
+                if (carried == 0) {
+                    out.set(buf, pos, nl - pos); // 흔한 경우: 버퍼 안에서 복사 없이 디코딩
+                } else {
+                    carried = append(carried, nl - pos);
+                    out.set(carry, 0, carried);
+                }
+                pos = nl + 1;
+                return true;
+            }
+            carried = append(carried, lim - pos);
+            pos = lim;
+        }
+    }
+
+    private int indexOf(int b) {
+        for (int i = pos; i < lim; i++) if (buf[i] == b) return i;
+        return -1;
+    }
+
+    private int append(int carried, int n) throws IOException {
+        if (carried + n > MAX_LINE) throw new IOException("line too long");
+        if (carried + n > carry.length) carry = Arrays.copyOf(carry, Math.max(carried + n, carry.length * 2));
+        System.arraycopy(buf, pos, carry, carried, n);
+        return carried + n;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        lim = n;
+        return true;
+    }
+
+    // ==== InputStream (바이너리 프레임 수신) ====
+
+    @Override
+    public int read() throws IOException {
+        if (pos == lim && !fill()) return -1;
+        return buf[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (pos == lim && !fill()) return -1;
+        int n = Math.min(len, lim - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException { in.close(); }
+}
@@ -0,0 +1,172 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 같은 JVM 안의 "소켓". 포트 번호로 리스너를 찾고, 연결마다 방향별 메모리 파이프 2개를 만든다.
+ * 커널을 거치지 않으므로 클라이언트/서버 수천 쌍을 한 프로세스에서 돌려도 포트나 파일 디스크립터가 들지 않는다.
+ *
+ *   ServerCore core = new ServerCore(log);
+ *   core.start(7777, ServerCore.IoMode.LOOPBACK);
+ *   new NetworkClient(onLine, LoopbackTransport.shared()).connect("local", 7777, "alice");
+ *
+ * 파이프는 크기가 정해진 링 버퍼라 TCP처럼 읽는 쪽이 느리면 쓰는 쪽이 기다린다.
+ * 대기는 ReentrantLock/Condition이라 가상 스레드가 캐리어 스레드를 붙잡지 않는다.
+ */
+public final class LoopbackTransport implements Transport {
+    private static final int PIPE_BYTES = 64 * 1024; // 방향별 버퍼 (대략 소켓 송수신 버퍼 크기)
+    private static final LoopbackTransport SHARED = new LoopbackTransport();
+
+    private final ConcurrentHashMap<Integer, Consumer<Link>> listeners = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /** 프로세스 공용 인스턴스 (ServerCore LOOPBACK 모드가 여기에 포트를 연다) */
+    public static LoopbackTransport shared() { return SHARED; }
+
+    /** port로 들어오는 연결을 accept가 받는다 (connect()를 부른 스레드에서 호출되므로 오래 붙잡지 않는다) */
+    void listen(int port, Consumer<Link> accept) throws IOException {
+        if (listeners.putIfAbsent(port, accept) != null) throw new BindException("loopback port " + port + " in use");
+    }
+
+    void unlisten(int port, Consumer<Link> accept) {
+        listeners.remove(port, accept);
+    }
+
+    /** host는 무시한다 (같은 JVM) */
+    @Override
+    public Link connect(String host, int port) throws IOException {
+        Consumer<Link> accept = listeners.get(port);
+        if (accept == null) throw new ConnectException("loopback port " + port + " not listening");
+        Pipe up = new Pipe(), down = new Pipe();
+        End client = new End(down, up, "loopback:" + port);
+        End server = new End(up, down, "loopback-client#" + nextId.getAndIncrement());
+        accept.accept(server);
+        return client;
+    }
+
+    // ==== 파이프 ====
+
+    /** 한 방향 링 버퍼. 닫히면 읽는 쪽은 남은 바이트 뒤에 EOF, 쓰는 쪽은 IOException */
+    private static final class Pipe {
+        private final byte[] buf = new byte[PIPE_BYTES];
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition readable = lock.newCondition(), writable = lock.newCondition();
+        private int head, count;
+        private boolean closed;
+
+        int read(byte[] b, int off, int len, int timeoutMs) throws IOException {
+            if (len == 0) return 0;
+            lock.lock();
+            try {
+                long left = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                while (count == 0 && !closed) {
+                    if (timeoutMs <= 0) readable.await();
+                    else if ((left = readable.awaitNanos(left)) <= 0) throw new SocketTimeoutException("loopback read timed out");
+                }
+                if (count == 0) return -1;
+                int n = Math.min(len, count);
+                int first = Math.min(n, buf.length - head);
+                System.arraycopy(buf, head, b, off, first);
+                System.arraycopy(buf, 0, b, off + first, n - first);
+                head = (head + n) % buf.length;
+                count -= n;
+                writable.signalAll();
+                return n;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                lock.lock();
+                try {
+                    while (count == buf.length && !closed) writable.await();
+                    if (closed) throw new IOException("loopback connection closed");
+                    int n = Math.min(len, buf.length - count);
+                    int tail = (head + count) % buf.length;
+                    int first = Math.min(n, buf.length - tail);
+                    System.arraycopy(b, off, buf, tail, first);
+                    System.arraycopy(b, off + first, buf, 0, n - first);
+                    count += n;
+                    off += n;
+                    len -= n;
+                    readable.signalAll();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted");
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        int available() {
+            lock.lock();
+            try { return count; } finally { lock.unlock(); }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                readable.signalAll();
+                writable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** 연결의 한쪽 끝. 닫으면 두 방향 모두 닫힌다 (소켓 close와 같이 상대는 EOF를 본다) */
+    private static final class End implements Link {
+        private final Pipe inPipe, outPipe;
+        private final String remote;
+        private volatile int timeoutMs;
+
+        private final InputStream in = new InputStream() {
+            @Override public int read() throws IOException {
+                byte[] one = new byte[1];
+                return (read(one, 0, 1) < 0) ? -1 : one[0] & 0xFF;
+            }
+            @Override public int read(byte[] b, int off, int len) throws IOException { return inPipe.read(b, off, len, timeoutMs); }
+            @Override public int available() { return inPipe.available(); }
+            @Override public void close() { End.this.close(); }
+        };
+
+        private final OutputStream out = new OutputStream() {
+            @Override public void write(int b) throws IOException { write(new byte[] { (byte) b }, 0, 1); }
+            @Override public void write(byte[] b, int off, int len) throws IOException { outPipe.write(b, off, len); }
+            @Override public void close() { End.this.close(); }
+        };
+
+        End(Pipe inPipe, Pipe outPipe, String remote) {
+            this.inPipe = inPipe;
+            this.outPipe = outPipe;
+            this.remote = remote;
+        }
+
+        @Override public InputStream in() { return in; }
+        @Override public OutputStream out() { return out; }
+        @Override public void setReadTimeout(int ms) { timeoutMs = ms; }
+        @Override public String remote() { return remote; }
+        @Override public void close() {
+            inPipe.close();
+            outPipe.close();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 매칭 대기열.
+ * 핸드셰이크를 마친 플레이어는 어느 스레드에서든 enqueue()로 넣기만 하고,
+ * 매칭 전용 스레드 1개가 큐에서 2명씩 꺼내 Room을 만든다.
+ * 먼저 들어온 플레이어가 짝을 기다리는 동안 연결이 끊기면 버리고 다음 사람을 기다린다.
+ * 봇 상대를 켜 두면 (setBotOpponent) 짝 없이 그만큼 기다린 플레이어는 BotPlayer와 붙는다.
+ */
+public class Matchmaker {
+    private static final long IDLE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static final class Ticket {
+        final ClientHandler handler;
+        final long enqueuedAt = System.nanoTime();
+        final Trace.Pair span = Trace.begin(Trace.Pair::new); // 방이 정해지면 닫는다 (끊기거나 로비로 빠지면 버린다)
+        Ticket(ClientHandler h) { this.handler = h; }
+    }
+
+    private final Consumer<String> log;
+    private final RoomRegistry rooms;
+    private final Queue<Ticket> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger(); // 큐 + 짝을 기다리는 1명
+    private volatile boolean running = false;
+    private Thread worker;
+    private volatile long botWaitNanos = 0; // 0이면 봇 상대 없음
+    private volatile long botThinkMs;
+
+    // ==== 통계 ====
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();     // 대기 중 연결 끊김
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final AtomicLong waitNanosMax = new AtomicLong();
+    private final LongAdder botMatches = new LongAdder();
+
+    public Matchmaker(Consumer<String> log, RoomRegistry rooms) {
+        this.log = log;
+        this.rooms = rooms;
+    }
+
+    public void start() {
+        running = true;
+        worker = new Thread(this::pairLoop, "Matchmaker");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) LockSupport.unpark(worker);
+    }
+
+    /** 짝 없이 waitMs 넘게 기다린 플레이어에게 봇을 붙인다 (waitMs=0이면 끔). thinkMs = 봇이 쏘기 전에 기다리는 시간 */
+    public void setBotOpponent(long waitMs, long thinkMs) {
+        this.botThinkMs = thinkMs;
+        this.botWaitNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+    }
+
+    public void enqueue(ClientHandler h) {
+        queue.add(new Ticket(h));
+        depth.incrementAndGet();
+        h.send(Protocol.ROOM_STATUS + " WAITING 1/2");
+        LockSupport.unpark(worker);
+    }
+
+    public int queueDepth() { return depth.get(); }
+    public long matchesMade() { return matches.sum(); }
+    public long droppedWhileWaiting() { return dropped.sum(); }
+    public long botMatchesMade() { return botMatches.sum(); }
+    public long maxTimeToMatchMillis() { return TimeUnit.NANOSECONDS.toMillis(waitNanosMax.get()); }
+    public double avgTimeToMatchMillis() {
+        long n = matches.sum();
+        return n == 0 ? 0.0 : waitNanosTotal.sum() / 1_000_000.0 / (2 * n);
+    }
+
+    private void pairLoop() {
+        Ticket first = null;
+        while (running) {
+            if (first == null) first = nextAlive();
+            if (first == null) { LockSupport.parkNanos(this, IDLE_CHECK_NANOS); continue; }
+
+            Ticket second = nextAlive();
+            if (second == null) {
+                // 짝이 올 때까지 대기하면서 P1 연결이 살아있는지 주기적으로 확인
+                LockSupport.parkNanos(this, IDLE_CHECK_NANOS);
+                if (!first.handler.isQueued()) { skip(first); first = null; }
+                else if (first.handler.isClosed()) { drop(first); first = null; }
+                else if (botDue(first) && first.handler.claimForMatch()) { makeBotRoom(first); first = null; }
+                continue;
+            }
+            if (first.handler.isClosed()) { drop(first); first = second; continue; }
+
+            // 로비(ROOM_CREATE/JOIN)로 빠진 플레이어와 경쟁할 수 있으므로 둘 다 확보한 뒤에 방 생성
+            if (!first.handler.claimForMatch()) { skip(first); first = second; continue; }
+            if (!second.handler.claimForMatch()) { first.handler.releaseMatch(); skip(second); continue; }
+
+            makeRoom(first, second);
+            first = null;
+        }
+    }
+
+    private Ticket nextAlive() {
+        Ticket t;
+        while ((t = queue.poll()) != null) {
+            if (!t.handler.isQueued()) skip(t);
+            else if (t.handler.isClosed()) drop(t);
+            else return t;
+        }
+        return null;
+    }
+
+    // 로비로 빠진 플레이어: 조용히 대기열에서만 제거
+    private void skip(Ticket t) {
+        depth.decrementAndGet();
+    }
+
+    private void drop(Ticket t) {
+        depth.decrementAndGet();
+        dropped.increment();
+        log.accept("[Server] " + t.handler.getNickname() + " left while waiting");
+    }
+
+    private boolean botDue(Ticket t) {
+        long wait = botWaitNanos;
+        return wait > 0 && System.nanoTime() - t.enqueuedAt >= wait;
+    }
+
+    private void makeBotRoom(Ticket t) {
+        depth.decrementAndGet();
+        ClientHandler p1 = t.handler;
+        Room room = rooms.create(p1, new BotPlayer("Bot", botThinkMs));
+        room.announceCreatedAndReady();
+        if (t.span != null) t.span.end(room.getId(), p1.getNickname(), "Bot");
+        botMatches.increment();
+        log.accept("[Server] Room " + room.getId() + " READY: " + p1.getNickname() + " vs Bot (waited "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t.enqueuedAt) + " ms)");
+    }
+
+    private void makeRoom(Ticket t1, Ticket t2) {
+        depth.addAndGet(-2);
+        ClientHandler p1 = t1.handler, p2 = t2.handler;
+        p2.send(Protocol.ROOM_STATUS + " WAITING 2/2");
+
+        Room room = rooms.create(p1, p2);
+        room.announceCreatedAndReady();
+        if (t1.span != null) t1.span.end(room.getId(), p1.getNickname(), p2.getNickname());
+        if (t2.span != null) t2.span.end(room.getId(), p2.getNickname(), p1.getNickname());
+
+        long now = System.nanoTime();
+        long w1 = now - t1.enqueuedAt, w2 = now - t2.enqueuedAt;
+        matches.increment();
+        waitNanosTotal.add(w1 + w2);
+        waitNanosMax.accumulateAndGet(Math.max(w1, w2), Math::max);
+
+        log.accept("[Server] Room " + room.getId() + " READY: " + p1.getNickname() + " vs " + p2.getNickname()
+                + " (waited " + TimeUnit.NANOSECONDS.toMillis(w1) + " ms, queue=" + depth.get() + ")");
+    }
+}
@@ -0,0 +1,331 @@
+package server;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Protocol 메시지 1개.
+ * 자주 오가는 게임 메시지는 opcode + 고정 길이 바이트 필드로 들고 있고,
+ * 필요할 때만 기존 텍스트 줄(line())이나 바이너리 프레임(frame())으로 인코딩한다.
+ * 한 번 만든 인코딩은 캐시되므로 방송할 때 수신자 수와 상관없이 한 번만 만든다.
+ * 압축 메시지는 값 조합이 몇 천 개뿐이라 조합마다 인스턴스 하나를 공유(intern)하고,
+ * 처음 만들 때 텍스트/프레임 인코딩까지 미리 채워 둔다 → 게임 진행 중 송수신에서 새 객체가 생기지 않는다.
+ *
+ * 바이너리 프레임: [u16 길이][u8 opcode][필드...]  (길이 = opcode 포함 이후 바이트 수)
+ */
+public final class Message {
+    public static final int MAX_FRAME = 8 * 1024;
+
+    private final byte op;
+    private final byte[] args;  // OP_TEXT가 아닐 때의 필드
+    private String line;        // 텍스트 형태 (지연 생성)
+    private byte[] lineBytes;   // line + '\n'
+    private byte[] frame;       // 바이너리 프레임
+
+    private Message(byte op, byte[] args, String line) {
+        this.op = op;
+        this.args = args;
+        this.line = line;
+    }
+
+    public byte op() { return op; }
+    public int arg(int i) { return args[i] & 0xFF; }
+    public boolean isText() { return op == Protocol.OP_TEXT; }
+
+    // ==== 생성 ====
+
+    public static Message text(String line) { return new Message(Protocol.OP_TEXT, null, line); }
+
+    public static Message turn(int who) { return intern(Protocol.OP_TURN, f(who, 0)); }
+
+    public static Message reload(int idx, int bullets, int blanks) {
+        return intern(Protocol.OP_RELOAD, f(idx, 0) | f(bullets, 1) | f(blanks, 2));
+    }
+
+    /** who: 1|2 (0=알 수 없음), self: SELF 조준이면 true */
+    public static Message aimUpdate(int who, boolean self) {
+        return intern(Protocol.OP_AIM_UPDATE, f(who, 0) | f(self ? 1 : 0, 1));
+    }
+
+    public static Message fireResolve(boolean bullet, boolean self, int hp1, int hp2, int bLeft, int kLeft, int shot) {
+        return intern(Protocol.OP_FIRE_RESOLVE, f(bullet ? 1 : 0, 0) | f(self ? 1 : 0, 1)
+                | f(hp1, 2) | f(hp2, 3) | f(bLeft, 4) | f(kLeft, 5) | f(shot, 6));
+    }
+
+    /** win: 1|2, 0=DRAW */
+    public static Message gameOver(int win) { return intern(Protocol.OP_GAME_OVER, f(win, 0)); }
+
+    public static Message readyStatus(boolean p1Ready, boolean p2Ready) {
+        return intern(Protocol.OP_READY_STATUS, f((p1Ready ? 1 : 0) | (p2Ready ? 2 : 0), 0));
+    }
+
+    // 클라→서버
+    public static Message ready() { return intern(Protocol.OP_READY, 0); }
+    public static Message fire()  { return intern(Protocol.OP_FIRE, 0); }
+    public static Message aim(boolean self) { return intern(Protocol.OP_AIM, f(self ? 1 : 0, 0)); }
+
+    // ==== 공유 인스턴스 ====
+
+    // 필드 하나의 값 범위: 0..RADIX-1 (HP, 장탄 수, 6발 실린더 위치 모두 이 안에 든다)
+    private static final int RADIX = 8;
+
+    // opcode 하위 6비트별 테이블. 필드들을 8진수 자리로 모아 인덱스로 쓴다
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final AtomicReferenceArray<Message>[] INTERNED = new AtomicReferenceArray[64];
+    static {
+        byte[] ops = { Protocol.OP_TURN, Protocol.OP_RELOAD, Protocol.OP_AIM_UPDATE, Protocol.OP_FIRE_RESOLVE,
+                Protocol.OP_GAME_OVER, Protocol.OP_READY_STATUS, Protocol.OP_READY, Protocol.OP_FIRE, Protocol.OP_AIM };
+        for (byte op : ops) {
+            int size = 1;
+            for (int i = 0; i < argCount(op); i++) size *= RADIX;
+            INTERNED[op & 63] = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    // 필드 i(0..6)를 long 한 개에 8비트씩 담는다 (배열을 만들지 않으려고)
+    private static long f(int v, int i) { return (long) (v & 0xFF) << (8 * i); }
+
+    private static Message intern(byte op, long fields) {
+        int n = argCount(op);
+        int key = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int a = (int) (fields >>> (8 * i)) & 0xFF;
+            if (a >= RADIX) return prebuilt(op, fields, n); // 범위 밖이면 공유하지 않는다
+            key = key * RADIX + a;
+        }
+        AtomicReferenceArray<Message> table = INTERNED[op & 63];
+        Message m = table.get(key);
+        if (m == null) {
+            // 동시에 만들어도 먼저 들어간 하나만 쓴다 (인코딩을 다 채운 뒤 게시하므로 안전)
+            Message fresh = prebuilt(op, fields, n);
+            m = table.compareAndExchange(key, null, fresh);
+            if (m == null) m = fresh;
+        }
+        return m;
+    }
+
+    private static Message prebuilt(byte op, long fields, int n) {
+        byte[] a = new byte[n];
+        for (int i = 0; i < n; i++) a[i] = (byte) (fields >>> (8 * i));
+        Message m = new Message(op, a, null);
+        m.lineBytes = m.encodeLine();
+        m.line = new String(m.lineBytes, 0, m.lineBytes.length - 1, StandardCharsets.UTF_8);
+        m.frame = m.encodeFrame();
+        return m;
+    }
+
+    /** 클라이언트가 보내는 텍스트 줄을 가능한 경우 압축 메시지로 바꾼다 (READY / FIRE / AIM x) */
+    public static Message fromClientLine(String line) {
+        if (line.equals(Protocol.READY)) return ready();
+        if (line.equals(Protocol.FIRE)) return fire();
+        if (line.startsWith(Protocol.AIM + " ")) {
+            return aim("SELF".equalsIgnoreCase(line.substring(Protocol.AIM.length() + 1).trim()));
+        }
+        return text(line);
+    }
+
+    // ==== 텍스트 인코딩 ====
+
+    public String line() {
+        String s = line;
+        if (s == null) line = s = format();
+        return s;
+    }
+
+    public byte[] lineBytes() {
+        byte[] b = lineBytes;
+        if (b == null) lineBytes = b = encodeLine();
+        return b;
+    }
+
+    private String format() {
+        byte[] b = lineBytes();
+        return new String(b, 0, b.length - 1, StandardCharsets.UTF_8);
+    }
+
+    // 텍스트 줄 조각들 (미리 인코딩해 둔 바이트를 이어 붙이고 숫자만 직접 쓴다)
+    private static byte[] ascii(String s) { return s.getBytes(StandardCharsets.US_ASCII); }
+
+    private static final byte[] T_TURN         = ascii(Protocol.TURN + " ");
+    private static final byte[] T_RELOAD       = ascii(Protocol.RELOAD + " ");
+    private static final byte[] T_SLASH6_B     = ascii("/6 B=");
+    private static final byte[] T_K            = ascii(" K=");
+    private static final byte[] T_AIM_WHO      = ascii(Protocol.AIM_UPDATE + " WHO=");
+    private static final byte[] T_TARGET       = ascii(" TARGET=");
+    private static final byte[] T_FIRE_RESULT  = ascii(Protocol.FIRE_RESOLVE + " RESULT=");
+    private static final byte[] T_HP1          = ascii(" HP1=");
+    private static final byte[] T_HP2          = ascii(" HP2=");
+    private static final byte[] T_B_LEFT       = ascii(" B_LEFT=");
+    private static final byte[] T_K_LEFT       = ascii(" K_LEFT=");
+    private static final byte[] T_SHOT         = ascii(" SHOT=");
+    private static final byte[] T_SLASH6       = ascii("/6");
+    private static final byte[] T_GAME_OVER    = ascii(Protocol.GAME_OVER + " WIN=");
+    private static final byte[] T_P1_READY     = ascii(Protocol.ROOM_STATUS + " P1_READY=");
+    private static final byte[] T_P2_READY     = ascii(" P2_READY=");
+    private static final byte[] T_AIM          = ascii(Protocol.AIM + " ");
+    private static final byte[] T_READY        = ascii(Protocol.READY);
+    private static final byte[] T_FIRE         = ascii(Protocol.FIRE);
+    private static final byte[] T_P1 = ascii("P1"), T_P2 = ascii("P2"), T_P_UNKNOWN = ascii("P_UNKNOWN"), T_DRAW = ascii("DRAW");
+    private static final byte[] T_SELF = ascii("SELF"), T_ENEMY = ascii("ENEMY");
+    private static final byte[] T_BULLET = ascii("BULLET"), T_BLANK = ascii("BLANK");
+    private static final byte[] T_TRUE = ascii("true"), T_FALSE = ascii("false");
+
+    private static byte[] who(int p) { return p == 1 ? T_P1 : p == 2 ? T_P2 : T_P_UNKNOWN; }
+    private static byte[] target(int self) { return self != 0 ? T_SELF : T_ENEMY; }
+    private static byte[] bool(boolean b) { return b ? T_TRUE : T_FALSE; }
+
+    private byte[] encodeLine() {
+        if (isText()) {
+            byte[] s = line.getBytes(StandardCharsets.UTF_8);
+            byte[] b = Arrays.copyOf(s, s.length + 1);
+            b[s.length] = '\n';
+            return b;
+        }
+        byte[] b = new byte[128]; // 가장 긴 FIRE_RESOLVE도 100바이트가 안 된다
+        int n;
+        switch (op) {
+            case Protocol.OP_TURN:
+                n = put(b, 0, T_TURN);
+                n = put(b, n, who(arg(0)));
+                break;
+            case Protocol.OP_RELOAD:
+                n = put(b, 0, T_RELOAD);
+                n = putInt(b, n, arg(0));
+                n = put(b, n, T_SLASH6_B);
+                n = putInt(b, n, arg(1));
+                n = put(b, n, T_K);
+                n = putInt(b, n, arg(2));
+                break;
+            case Protocol.OP_AIM_UPDATE:
+                n = put(b, 0, T_AIM_WHO);
+                n = put(b, n, who(arg(0)));
+                n = put(b, n, T_TARGET);
+                n = put(b, n, target(arg(1)));
+                break;
+            case Protocol.OP_FIRE_RESOLVE:
+                n = put(b, 0, T_FIRE_RESULT);
+                n = put(b, n, arg(0) != 0 ? T_BULLET : T_BLANK);
+                n = put(b, n, T_TARGET);
+                n = put(b, n, target(arg(1)));
+                n = put(b, n, T_HP1);
+                n = putInt(b, n, arg(2));
+                n = put(b, n, T_HP2);
+                n = putInt(b, n, arg(3));
+                n = put(b, n, T_B_LEFT);
+                n = putInt(b, n, arg(4));
+                n = put(b, n, T_K_LEFT);
+                n = putInt(b, n, arg(5));
+                n = put(b, n, T_SHOT);
+                n = putInt(b, n, arg(6));
+                n = put(b, n, T_SLASH6);
+                break;
+            case Protocol.OP_GAME_OVER:
+                n = put(b, 0, T_GAME_OVER);
+                n = put(b, n, arg(0) == 0 ? T_DRAW : who(arg(0)));
+                break;
+            case Protocol.OP_READY_STATUS:
+                n = put(b, 0, T_P1_READY);
+                n = put(b, n, bool((arg(0) & 1) != 0));
+                n = put(b, n, T_P2_READY);
+                n = put(b, n, bool((arg(0) & 2) != 0));
+                break;
+            case Protocol.OP_READY:
+                n = put(b, 0, T_READY);
+                break;
+            case Protocol.OP_FIRE:
+                n = put(b, 0, T_FIRE);
+                break;
+            case Protocol.OP_AIM:
+                n = put(b, 0, T_AIM);
+                n = put(b, n, target(arg(0)));
+                break;
+            default:
+                n = 0;
+                break;
+        }
+        b[n++] = '\n';
+        return Arrays.copyOf(b, n);
+    }
+
+    private static int put(byte[] b, int n, byte[] t) {
+        System.arraycopy(t, 0, b, n, t.length);
+        return n + t.length;
+    }
+
+    // 필드는 0..255 이므로 최대 3자리
+    private static int putInt(byte[] b, int n, int v) {
+        if (v >= 100) b[n++] = (byte) ('0' + v / 100);
+        if (v >= 10)  b[n++] = (byte) ('0' + v / 10 % 10);
+        b[n++] = (byte) ('0' + v % 10);
+        return n;
+    }
+
+    // ==== 바이너리 인코딩 ====
+
+    public byte[] frame() {
+        byte[] f = frame;
+        if (f == null) frame = f = encodeFrame();
+        return f;
+    }
+
+    private byte[] encodeFrame() {
+        byte[] body = isText() ? line().getBytes(StandardCharsets.UTF_8) : args;
+        int len = Math.min(1 + body.length, MAX_FRAME);
+        byte[] f = new byte[2 + len];
+        f[0] = (byte) (len >>> 8);
+        f[1] = (byte) len;
+        f[2] = op;
+        System.arraycopy(body, 0, f, 3, len - 1);
+        return f;
+    }
+
+    /** 프레임 본문(opcode 포함)을 메시지로. 필드 수가 모자라면 null */
+    public static Message decode(byte[] buf, int off, int len) {
+        if (len < 1) return null;
+        byte op = buf[off];
+        if (op == Protocol.OP_TEXT) {
+            return text(new String(buf, off + 1, len - 1, StandardCharsets.UTF_8));
+        }
+        int need = argCount(op);
+        if (need < 0 || len - 1 < need) return null;
+        long fields = 0;
+        for (int i = 0; i < need; i++) fields |= f(buf[off + 1 + i], i);
+        return intern(op, fields); // 공유 인스턴스 (새 객체 없음)
+    }
+
+    /** 블로킹 스트림에서 프레임 1개를 읽는다. 연결이 끝나면 null */
+    public static Message read(DataInputStream in) throws IOException {
+        return read(in, new byte[MAX_FRAME]);
+    }
+
+    /** scratch(MAX_FRAME 바이트 이상)를 수신 버퍼로 재사용하는 버전 */
+    public static Message read(DataInputStream in, byte[] scratch) throws IOException {
+        int hi = in.read();
+        if (hi < 0) return null;
+        int len = (hi << 8) | in.readUnsignedByte();
+        if (len < 1 || len > MAX_FRAME) throw new IOException("bad frame length " + len);
+        in.readFully(scratch, 0, len);
+        Message m = decode(scratch, 0, len);
+        if (m == null) throw new EOFException("bad frame op " + scratch[0]);
+        return m;
+    }
+
+    private static int argCount(byte op) {
+        switch (op) {
+            case Protocol.OP_TURN:         return 1;
+            case Protocol.OP_RELOAD:       return 3;
+            case Protocol.OP_AIM_UPDATE:   return 2;
+            case Protocol.OP_FIRE_RESOLVE: return 7;
+            case Protocol.OP_GAME_OVER:    return 1;
+            case Protocol.OP_READY_STATUS: return 1;
+            case Protocol.OP_READY:        return 0;
+            case Protocol.OP_FIRE:         return 0;
+            case Protocol.OP_AIM:          return 1;
+            default:                       return -1;
+        }
+    }
+}
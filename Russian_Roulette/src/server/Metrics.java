@@ -0,0 +1,218 @@
+package server;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 서버 전역 계측값 (JVM당 하나).
+ * 카운터는 LongAdder라 여러 스레드(리액터, Room 액터)가 동시에 올려도 한 캐시 라인에 몰리지 않고,
+ * 히스토그램은 로그 버킷(2의 거듭제곱 구간을 8칸으로 나눔, 오차 12.5% 이내)이라 기록이 O(1)이다.
+ * 값은 StatsServer(/stats, /stats.json)나 주기적 로그 덤프로 읽는다.
+ */
+public final class Metrics {
+
+    // ==== 카운터 ====
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+        public void inc() { adder.increment(); }
+        public void add(long n) { adder.add(n); }
+        public long get() { return adder.sum(); }
+    }
+
+    // ==== 히스토그램 ====
+    public static final class Histogram {
+        private static final int SUB = 8;
+        private final LongAdder[] buckets = new LongAdder[64 * SUB];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        final String unit;
+
+        public Histogram(String unit) {
+            this.unit = unit;
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        public void record(long v) {
+            if (v < 0) v = 0;
+            buckets[index(v)].increment();
+            count.increment();
+            sum.add(v);
+            max.accumulate(v);
+        }
+
+        private static int index(long v) {
+            if (v < SUB) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v); // v >= 8 이므로 exp >= 3
+            int sub = (int) (v >>> (exp - 3)) & (SUB - 1);
+            return (exp - 2) * SUB + sub;
+        }
+
+        // 버킷의 하한값
+        private static long lowerBound(int i) {
+            if (i < SUB) return i;
+            int exp = i / SUB + 2, sub = i % SUB;
+            return (long) (SUB + sub) << (exp - 3);
+        }
+
+        public long count() { return count.sum(); }
+        public long max() { return max.get(); }
+        public double mean() { long c = count.sum(); return c == 0 ? 0 : (double) sum.sum() / c; }
+
+        public long percentile(double p) {
+            long total = count.sum();
+            if (total == 0) return 0;
+            long target = (long) Math.ceil(total * p), seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target) return lowerBound(i);
+            }
+            return max.get();
+        }
+    }
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public static Histogram histogram(String name, String unit) {
+        return HISTOGRAMS.computeIfAbsent(name, k -> new Histogram(unit));
+    }
+
+    /** 읽을 때마다 계산하는 값 (방 수, 대기열 길이 등). 같은 이름이면 덮어쓴다 */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    // ==== 서버 계측 지점 ====
+    static final Counter CONN_ACCEPTED     = counter("conn.accepted");
+    static final Counter CONN_CLOSED       = counter("conn.closed");
+    static final Counter HANDSHAKE_OK      = counter("handshake.ok");
+    static final Counter HANDSHAKE_FAILED  = counter("handshake.failed");
+    static final Histogram HANDSHAKE_TIME  = histogram("handshake.time", "us"); // 접속 → 닉네임 수신
+    static final Histogram FIRE_TIME       = histogram("room.fire.time", "ns"); // Room.applyFire 처리 시간
+    static final Histogram OUTBOUND_DEPTH  = histogram("outbound.queue.depth", "msgs"); // 쌓을 때의 대기 메시지 수
+    static final Counter OUTBOUND_OVERFLOW = counter("outbound.overflow");
+    static final Counter CONN_REAPED       = counter("conn.reaped");
+    static final Counter RESUMED           = counter("session.resumed");
+    static final Counter RESUME_FAILED     = counter("session.resume.failed");
+    static final Counter REDIRECTS         = counter("cluster.redirects");
+    static {
+        gauge("conn.active", () -> CONN_ACCEPTED.get() - CONN_CLOSED.get());
+    }
+
+    // 메시지 수 (opcode 또는 LineCodec 명령 코드별). 텍스트 줄도 같은 코드로 센다
+    private static final LongAdder[] IN  = newAdders(256);
+    private static final LongAdder[] OUT = newAdders(256);
+
+    static void messageIn(int code)  { IN[code & 0xFF].increment(); }
+    static void messageOut(int code) { OUT[code & 0xFF].increment(); }
+    static void messageOut(int code, int n) { OUT[code & 0xFF].add(n); }
+
+    private static LongAdder[] newAdders(int n) {
+        LongAdder[] a = new LongAdder[n];
+        for (int i = 0; i < n; i++) a[i] = new LongAdder();
+        return a;
+    }
+
+    static String codeName(int code) {
+        switch (code) {
+            case Protocol.OP_TEXT:            return "TEXT";
+            case Protocol.OP_TURN:            return "TURN";
+            case Protocol.OP_RELOAD:          return "RELOAD";
+            case Protocol.OP_AIM_UPDATE:      return "AIM_UPDATE";
+            case Protocol.OP_FIRE_RESOLVE:    return "FIRE_RESOLVE";
+            case Protocol.OP_GAME_OVER:       return "GAME_OVER";
+            case Protocol.OP_READY_STATUS:    return "READY_STATUS";
+            case Protocol.OP_READY:           return "READY";
+            case Protocol.OP_AIM:             return "AIM";
+            case Protocol.OP_FIRE:            return "FIRE";
+            case LineCodec.CMD_CHAT:          return "CHAT";
+            case LineCodec.CMD_ROOM_LIST:     return "ROOM_LIST";
+            case LineCodec.CMD_ROOM_CREATE:   return "ROOM_CREATE";
+            case LineCodec.CMD_ROOM_JOIN:     return "ROOM_JOIN";
+            case LineCodec.CMD_SPECTATE:      return "SPECTATE";
+            case LineCodec.CMD_SPECTATE_LEAVE: return "SPECTATE_LEAVE";
+            case LineCodec.CMD_UNKNOWN:       return "UNKNOWN";
+            default:                          return String.format("0x%02X", code);
+        }
+    }
+
+    // ==== 출력 ====
+
+    /** 사람이 읽는 형식 (/stats, 주기적 덤프) */
+    public static String renderText() {
+        StringBuilder sb = new StringBuilder(2048);
+        COUNTERS.forEach((k, c) -> sb.append(k).append(' ').append(c.get()).append('\n'));
+        GAUGES.forEach((k, g) -> sb.append(k).append(' ').append(g.getAsLong()).append('\n'));
+        HISTOGRAMS.forEach((k, h) -> sb.append(k).append(" count=").append(h.count())
+                .append(" mean=").append(String.format(Locale.ROOT, "%.1f", h.mean()))
+                .append(" p50=").append(h.percentile(0.50))
+                .append(" p90=").append(h.percentile(0.90))
+                .append(" p99=").append(h.percentile(0.99))
+                .append(" max=").append(h.max())
+                .append(' ').append(h.unit).append('\n'));
+        appendMessages(sb, "msg.in.", IN);
+        appendMessages(sb, "msg.out.", OUT);
+        return sb.toString();
+    }
+
+    private static void appendMessages(StringBuilder sb, String prefix, LongAdder[] a) {
+        for (int i = 0; i < a.length; i++) {
+            long v = a[i].sum();
+            if (v != 0) sb.append(prefix).append(codeName(i)).append(' ').append(v).append('\n');
+        }
+    }
+
+    /** 모니터링 도구용 JSON (/stats.json) */
+    public static String renderJson() {
+        StringBuilder sb = new StringBuilder(2048).append('{');
+        sb.append("\"counters\":{");
+        int[] n = { 0 };
+        COUNTERS.forEach((k, c) -> field(sb, n, k).append(c.get()));
+        sb.append("},\"gauges\":{");
+        n[0] = 0;
+        GAUGES.forEach((k, g) -> field(sb, n, k).append(g.getAsLong()));
+        sb.append("},\"histograms\":{");
+        n[0] = 0;
+        HISTOGRAMS.forEach((k, h) -> field(sb, n, k)
+                .append("{\"unit\":\"").append(h.unit)
+                .append("\",\"count\":").append(h.count())
+                .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", h.mean()))
+                .append(",\"p50\":").append(h.percentile(0.50))
+                .append(",\"p90\":").append(h.percentile(0.90))
+                .append(",\"p99\":").append(h.percentile(0.99))
+                .append(",\"max\":").append(h.max()).append('}'));
+        sb.append("},\"messages\":{\"in\":");
+        messagesJson(sb, IN);
+        sb.append(",\"out\":");
+        messagesJson(sb, OUT);
+        return sb.append("}}").toString();
+    }
+
+    private static void messagesJson(StringBuilder sb, LongAdder[] a) {
+        sb.append('{');
+        int[] n = { 0 };
+        for (int i = 0; i < a.length; i++) {
+            long v = a[i].sum();
+            if (v != 0) field(sb, n, codeName(i)).append(v);
+        }
+        sb.append('}');
+    }
+
+    // 이름은 코드에서 정한 ASCII 식별자뿐이라 이스케이프하지 않는다
+    private static StringBuilder field(StringBuilder sb, int[] n, String name) {
+        if (n[0]++ > 0) sb.append(',');
+        return sb.append('"').append(name).append("\":");
+    }
+
+    private Metrics() {}
+}
@@ -0,0 +1,158 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NIO 모드의 연결 1개.
+ * 읽기/쓰기는 항상 자신이 등록된 리액터 스레드에서만 일어나고,
+ * 다른 스레드(Room 액터 등)는 write()로 큐에 넣고 리액터를 깨우기만 한다. 닫기도 리액터에 넘긴다 (close()).
+ */
+public class NioConnection implements Outbound.Sink {
+    private static final int MAX_LINE = 8 * 1024; // 한 줄 최대 길이(바이트)
+
+    private final SocketChannel channel;
+    private final NioServer.Reactor reactor;
+    private SelectionKey key;
+
+    // 수신: 개행이 나올 때까지 바이트를 모은다
+    private byte[] lineBuf = new byte[256];
+    private int lineLen = 0;
+    private final LineCodec line = new LineCodec(); // 완성된 줄 (다음 줄이 오면 덮어쓴다)
+
+    // 송신: 리액터가 비울 때까지 대기하는 버퍼들
+    private final Queue<ByteBuffer> outQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong(); // Outbound의 역압(back-pressure) 판단용
+    private final AtomicBoolean closed = new AtomicBoolean(); // 리액터 오류와 다른 스레드의 close()가 겹쳐도 한 번만 닫는다
+
+    private volatile ClientHandler handler; // HELLO 이후 닉네임을 받으면 생성 (핸드셰이크 제한 시간이 휠 스레드에서 본다)
+    private boolean binary;        // HELLO_BIN 협상 후에는 줄 대신 Message 프레임 단위로 자른다
+    private final long acceptedAt = System.nanoTime(); // 핸드셰이크 시간 측정용
+    Trace.Accept acceptSpan;       // accept → 리액터 등록 (추적이 꺼져 있으면 null)
+    Trace.Handshake handshakeSpan; // HELLO → 닉네임, 리액터 스레드 전용
+
+    NioConnection(SocketChannel channel, NioServer.Reactor reactor) {
+        this.channel = channel;
+        this.reactor = reactor;
+    }
+
+    void attach(SelectionKey key) { this.key = key; }
+    SocketChannel channel() { return channel; }
+    ClientHandler handler() { return handler; }
+    void handler(ClientHandler h) { this.handler = h; }
+    void binary(boolean on) { this.binary = on; }
+    boolean isClosed() { return closed.get(); }
+    long acceptedAt() { return acceptedAt; }
+
+    public String remoteAddress() {
+        try { return String.valueOf(channel.getRemoteAddress()); }
+        catch (IOException e) { return "?"; }
+    }
+
+    // 어느 스레드에서든 호출 가능. 보통은 ClientHandler의 Outbound가 여러 줄을 합쳐서 호출한다
+    @Override
+    public void write(byte[] data, int len) {
+        if (closed.get()) return;
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        buf.put(data, 0, len).flip();
+        queuedBytes.addAndGet(len);
+        outQueue.add(buf);
+        reactor.requestFlush(this);
+    }
+
+    @Override
+    public long backlogBytes() { return queuedBytes.get(); }
+
+    // ---- 이하 리액터 스레드 전용 ----
+
+    // 읽은 바이트를 줄(또는 바이너리 프레임) 단위로 잘라 넘긴다. 너무 길거나 잘못된 프레임이면 false
+    boolean frame(ByteBuffer in, NioServer.LineSink sink) {
+        while (in.hasRemaining()) {
+            byte b = in.get();
+            if (binary) {
+                if (!frameBinary(b)) return false;
+                if (closed.get()) return true;
+            } else if (b == '\n') {
+                line.set(lineBuf, 0, lineLen); // '\r' 제거 + UTF-8 디코딩 (새 문자열 없음)
+                lineLen = 0;
+                sink.onLine(this, line);
+                if (closed.get()) return true;
+            } else {
+                if (lineLen == MAX_LINE) return false;
+                if (lineLen == lineBuf.length) {
+                    lineBuf = Arrays.copyOf(lineBuf, Math.min(MAX_LINE, lineBuf.length * 2));
+                }
+                lineBuf[lineLen++] = b;
+            }
+        }
+        return true;
+    }
+
+    // [u16 길이][opcode][필드] 프레임을 한 바이트씩 모아 완성되면 handler로
+    private boolean frameBinary(byte b) {
+        if (lineLen == lineBuf.length) {
+            lineBuf = Arrays.copyOf(lineBuf, Math.min(2 + Message.MAX_FRAME, lineBuf.length * 2));
+        }
+        lineBuf[lineLen++] = b;
+        if (lineLen < 2) return true;
+        int len = ((lineBuf[0] & 0xFF) << 8) | (lineBuf[1] & 0xFF);
+        if (len < 1 || len > Message.MAX_FRAME) return false;
+        if (lineLen < 2 + len) return true;
+
+        Message m = Message.decode(lineBuf, 2, len);
+        lineLen = 0;
+        if (m == null) return false;
+        handler.handleMessage(m);
+        return true;
+    }
+
+    // 큐를 최대한 비운다. 소켓 버퍼가 차면 OP_WRITE를 걸고 다음 기회에 이어서
+    void flush() throws IOException {
+        if (key == null) return;
+        if (!key.isValid()) { closeNow(); return; }
+        ByteBuffer buf;
+        while ((buf = outQueue.peek()) != null) {
+            queuedBytes.addAndGet(-channel.write(buf));
+            if (buf.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            outQueue.poll();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    /** 다른 스레드(타이밍 휠, Room 액터)에서 끊을 때: 리액터가 읽는 도중에 채널을 닫지 않도록 넘긴다 */
+    void closeLater() {
+        if (closed.get()) return;
+        if (!reactor.requestClose(this)) closeNow(); // 리액터가 이미 멈췄으면 대신 닫는다
+    }
+
+    /**
+     * Outbound.Sink: 송신 대기열 초과(DISCONNECT)로 Room 액터나 writer 스레드에서도 불린다.
+     * 리액터 스레드면 바로, 아니면 closeLater()
+     */
+    @Override
+    public void close() {
+        if (reactor.inReactor()) closeNow();
+        else closeLater();
+    }
+
+    // 리액터 스레드 전용 (또는 리액터가 끝난 뒤)
+    void closeNow() {
+        if (!closed.compareAndSet(false, true)) return;
+        outQueue.clear();
+        if (key != null) key.cancel();
+        try { channel.close(); } catch (IOException ignored) {}
+        Metrics.CONN_CLOSED.inc();
+        if (handler != null) handler.onClosed();
+        else Metrics.HANDSHAKE_FAILED.inc(); // 닉네임을 받기 전에 끊김
+    }
+}
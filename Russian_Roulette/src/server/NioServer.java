@@ -0,0 +1,242 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Selector 기반 서버 (ServerCore의 NIO 모드).
+ * accept 스레드 몇 개(Acceptors) + 소수의 리액터 스레드가 모든 연결을 처리하고,
+ * 연결마다 스레드를 만들지 않는다. 줄 단위 텍스트 Protocol은 그대로 사용한다.
+ */
+public class NioServer {
+    interface LineSink { void onLine(NioConnection c, LineCodec line); }
+
+    private final Consumer<String> log;
+    private final Consumer<ClientHandler> onHandshake; // 닉네임까지 받은 플레이어 → 매칭
+    private final Outbound.Limits limits;
+    private final TimerWheel timers;        // 핸드셰이크 제한 시간 (null이면 없음)
+    private final long handshakeTimeoutMs;
+    private Acceptors acceptors;
+    private Reactor[] reactors;
+    private Thread[] reactorThreads;
+    private final AtomicInteger nextReactor = new AtomicInteger(); // 새 연결을 리액터에 돌아가며
+    private volatile boolean running = false;
+    private static final long STOP_WAIT_MS = 5_000;
+
+    public NioServer(Consumer<String> log, Consumer<ClientHandler> onHandshake) {
+        this(log, onHandshake, Outbound.Limits.DEFAULT, null, 0);
+    }
+
+    NioServer(Consumer<String> log, Consumer<ClientHandler> onHandshake, Outbound.Limits limits,
+              TimerWheel timers, long handshakeTimeoutMs) {
+        this.log = log;
+        this.onHandshake = onHandshake;
+        this.limits = limits;
+        this.timers = timers;
+        this.handshakeTimeoutMs = handshakeTimeoutMs;
+    }
+
+    public void start(int port, int reactorCount) throws IOException {
+        start(port, reactorCount, Acceptors.DEFAULT_BACKLOG, 1);
+    }
+
+    /** backlog, acceptorCount는 Acceptors 참고. 돌려주는 값은 로그용 설명 */
+    String start(int port, int reactorCount, int backlog, int acceptorCount) throws IOException {
+        running = true;
+
+        reactors = new Reactor[Math.max(1, reactorCount)];
+        reactorThreads = new Thread[reactors.length];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(Selector.open());
+            reactorThreads[i] = new Thread(reactors[i], "Reactor-" + i);
+            reactorThreads[i].start();
+        }
+        try {
+            acceptors = new Acceptors(port, backlog, acceptorCount, this::handoff, timers, log);
+        } catch (IOException e) {
+            stop(); // 포트를 못 잡았으면 리액터도 내린다
+            throw e;
+        }
+        return acceptors.describe(acceptorCount, backlog);
+    }
+
+    /** 리액터들이 남은 연결을 모두 닫고 끝날 때까지 기다린다 (ServerCore가 뒤이어 저널 등을 닫으므로) */
+    public void stop() {
+        running = false;
+        if (acceptors != null) acceptors.close();
+        if (reactors == null) return;
+        for (Reactor r : reactors) r.shutdown();
+        for (Thread t : reactorThreads) {
+            if (t == Thread.currentThread()) continue;
+            try { t.join(STOP_WAIT_MS); }
+            catch (InterruptedException e) { Thread.currentThread().interrupt(); return; }
+        }
+    }
+
+    // accept 스레드(Acceptors)에서: 논블로킹으로 바꿔 리액터에 넘긴다
+    private void handoff(SocketChannel ch) throws IOException {
+        ch.configureBlocking(false);
+        ch.socket().setTcpNoDelay(true);
+        Reactor r = reactors[Math.floorMod(nextReactor.getAndIncrement(), reactors.length)];
+        NioConnection c = new NioConnection(ch, r);
+        c.acceptSpan = Trace.begin(Trace.Accept::new);
+        r.register(c);
+        // 닉네임을 보내지 않는 연결 (BLOCKING 모드의 SO_TIMEOUT과 같은 역할)
+        if (timers != null) timers.schedule(handshakeTimeoutMs, () -> { if (c.handler() == null) c.closeLater(); });
+    }
+
+    // 첫 줄은 닉네임(또는 HELLO_BIN + 닉네임), 그 이후는 게임 명령
+    private void onLine(NioConnection c, LineCodec codec) {
+        ClientHandler h = c.handler();
+        if (h == null) {
+            String line = codec.toString(); // 연결당 한 번
+            boolean binary = line.startsWith(Protocol.HELLO_BIN);
+            if (binary) {
+                line = line.substring(Protocol.HELLO_BIN.length());
+                byte[] ok = (Protocol.BIN_OK + "\n").getBytes(StandardCharsets.US_ASCII);
+                c.write(ok, ok.length); // 이 줄까지만 텍스트, 이후는 프레임
+                c.binary(true);
+            }
+            String name = ClientHandler.nickname(line);
+            h = new ClientHandler(c, name, binary, limits);
+            c.handler(h);
+            Metrics.HANDSHAKE_OK.inc();
+            Metrics.HANDSHAKE_TIME.record((System.nanoTime() - c.acceptedAt()) / 1_000);
+            if (c.handshakeSpan != null) { c.handshakeSpan.end(c.remoteAddress(), name, binary); c.handshakeSpan = null; }
+            onHandshake.accept(h);
+        } else {
+            h.handleLine(codec);
+        }
+    }
+
+    final class Reactor implements Runnable {
+        private final Selector selector;
+        private final Queue<NioConnection> pendingRegs = new ConcurrentLinkedQueue<>();
+        private final Queue<NioConnection> pendingFlush = new ConcurrentLinkedQueue<>();
+        private final Queue<NioConnection> pendingClose = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuf = ByteBuffer.allocateDirect(16 * 1024); // 리액터 공용
+        private final LineSink sink = NioServer.this::onLine;
+        private volatile Thread thread;
+
+        Reactor(Selector selector) { this.selector = selector; }
+
+        void register(NioConnection c) {
+            pendingRegs.add(c);
+            selector.wakeup();
+            // 리액터가 그 사이에 끝났으면 받아 줄 곳이 없다
+            if (!selector.isOpen() && pendingRegs.remove(c)) c.closeNow();
+        }
+
+        void requestFlush(NioConnection c) {
+            pendingFlush.add(c);
+            if (Thread.currentThread() != thread) selector.wakeup();
+        }
+
+        /** 리액터가 이미 멈췄으면 false (호출한 쪽이 직접 닫는다) */
+        boolean requestClose(NioConnection c) {
+            if (!selector.isOpen()) return false;
+            pendingClose.add(c);
+            selector.wakeup();
+            // 넣는 사이에 리액터가 마지막 정리를 끝냈으면 도로 꺼내 호출한 쪽에 맡긴다
+            return selector.isOpen() || !pendingClose.remove(c);
+        }
+
+        boolean inReactor() { return Thread.currentThread() == thread; }
+
+        // running=false 뒤에 깨우기만 한다. 연결 정리와 selector 닫기는 리액터 스레드가 (run의 finally)
+        void shutdown() {
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                while (running) {
+                    selector.select();
+                    doRegistrations();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey k = it.next();
+                        it.remove();
+                        NioConnection c = (NioConnection) k.attachment();
+                        try {
+                            if (k.isValid() && k.isReadable()) read(c);
+                            if (k.isValid() && k.isWritable()) c.flush();
+                        } catch (IOException | RuntimeException e) {
+                            c.closeNow(); // 한 연결의 오류가 리액터 전체를 멈추지 않도록
+                        }
+                    }
+                    doFlushes();
+                    doCloses();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) log.accept("[Server] reactor error: " + e.getMessage());
+            } finally {
+                closeAll();
+            }
+        }
+
+        // selector가 열려 있을 때 모든 연결을 닫고 (방 나가기, 세션, 지표까지), 그 다음에 selector를 닫는다
+        private void closeAll() {
+            NioConnection c;
+            while ((c = pendingRegs.poll()) != null) c.closeNow();
+            try {
+                for (SelectionKey k : new ArrayList<>(selector.keys())) ((NioConnection) k.attachment()).closeNow();
+            } catch (ClosedSelectorException ignored) {}
+            try { selector.close(); } catch (IOException ignored) {}
+            doCloses();
+            while ((c = pendingRegs.poll()) != null) c.closeNow();
+        }
+
+        private void doRegistrations() {
+            NioConnection c;
+            while ((c = pendingRegs.poll()) != null) {
+                try {
+                    SelectionKey k = c.channel().register(selector, SelectionKey.OP_READ, c);
+                    c.attach(k);
+                    if (c.acceptSpan != null) { c.acceptSpan.end(c.remoteAddress()); c.acceptSpan = null; }
+                    c.handshakeSpan = Trace.begin(Trace.Handshake::new);
+                    byte[] hello = (Protocol.HELLO + "\n").getBytes(StandardCharsets.US_ASCII);
+                    c.write(hello, hello.length);
+                } catch (IOException e) {
+                    c.closeNow();
+                }
+            }
+        }
+
+        private void doFlushes() {
+            NioConnection c;
+            while ((c = pendingFlush.poll()) != null) {
+                if (c.isClosed()) continue;
+                try { c.flush(); }
+                catch (IOException e) { c.closeNow(); }
+            }
+        }
+
+        private void doCloses() {
+            NioConnection c;
+            while ((c = pendingClose.poll()) != null) c.closeNow();
+        }
+
+        private void read(NioConnection c) throws IOException {
+            readBuf.clear();
+            int n = c.channel().read(readBuf);
+            if (n < 0) { c.closeNow(); return; }
+            readBuf.flip();
+            if (!c.frame(readBuf, sink)) c.closeNow(); // 비정상적으로 긴 줄
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package server;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 연결 1개의 송신 대기열.
+ * queue()로 쌓아둔 인코딩된 메시지(텍스트 줄 또는 바이너리 프레임)들은 flush() 한 번에 하나의 바이트 배열로 합쳐져 한 번의 write로 나간다.
+ * (Room 액터는 명령 하나를 처리하며 만든 FIRE_RESOLVE/RELOAD/TURN... 을 모아 한 번에 flush)
+ * 쓰기는 호출 스레드가 아닌 writer에서 실행되므로 느린 수신자가 게임 로직을 붙잡지 않는다.
+ */
+public class Outbound {
+    /** 실제로 바이트를 내보내는 곳 (소켓 스트림 또는 NIO 채널) */
+    interface Sink {
+        void write(byte[] data, int len) throws IOException;
+        long backlogBytes(); // 아직 커널로 넘기지 못한 바이트 (없으면 0)
+        void close();
+    }
+
+    /** 대기열이 한도를 넘었을 때: 새 줄을 버리거나(DROP) 연결을 끊는다(DISCONNECT) */
+    public enum Overflow { DROP, DISCONNECT }
+
+    static final int  MAX_PENDING_LINES = 1024;
+    static final long MAX_BACKLOG_BYTES = 256 * 1024;
+
+    /** 연결당 한도 (ServerConfig의 outbound.max.lines / outbound.max.bytes) */
+    record Limits(int maxLines, long maxBytes) {
+        static final Limits DEFAULT = new Limits(MAX_PENDING_LINES, MAX_BACKLOG_BYTES);
+    }
+
+    private final Sink sink;
+    private final Executor writer;
+    private final Overflow policy;
+    private final Limits limits;
+
+    private final Queue<byte[]> lines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean closed = false;
+
+    private byte[] buf = new byte[1024]; // writer 전용 (flushScheduled로 단일 스레드 보장)
+
+    // 추적 태그 (Trace.Write): 이 연결이 들어간 방과 닉네임
+    private volatile long traceRoom;
+    private volatile String tracePlayer;
+
+    Outbound(Sink sink, Executor writer, Overflow policy) {
+        this(sink, writer, policy, Limits.DEFAULT);
+    }
+
+    Outbound(Sink sink, Executor writer, Overflow policy, Limits limits) {
+        this.sink = sink;
+        this.writer = writer;
+        this.policy = policy;
+        this.limits = limits;
+    }
+
+    public int pendingLines() { return pending.get(); }
+    public long backlogBytes() { return sink.backlogBytes(); }
+    public boolean isClosed() { return closed; }
+
+    void tag(long room, String player) {
+        this.traceRoom = room;
+        this.tracePlayer = player;
+    }
+
+    /** 인코딩된 메시지를 쌓기만 한다 (공유 버퍼이므로 수정하지 않는다). 실제 전송은 flush() 이후 */
+    public void queue(byte[] encoded) {
+        if (closed) return;
+        if (pending.get() >= limits.maxLines() || sink.backlogBytes() > limits.maxBytes()) {
+            Metrics.OUTBOUND_OVERFLOW.inc();
+            if (policy == Overflow.DISCONNECT) close();
+            return;
+        }
+        lines.add(encoded);
+        Metrics.OUTBOUND_DEPTH.record(pending.incrementAndGet());
+    }
+
+    /** 쌓인 줄 전부를 한 번의 write로 보내도록 예약 */
+    public void flush() {
+        if (closed || lines.isEmpty()) return;
+        if (flushScheduled.compareAndSet(false, true)) writer.execute(this::drain);
+    }
+
+    public void close() {
+        if (closed) return;
+        closed = true;
+        lines.clear();
+        sink.close();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                int len = 0;
+                byte[] line;
+                while ((line = lines.poll()) != null) {
+                    pending.decrementAndGet();
+                    len = append(line, len);
+                }
+                if (len > 0) {
+                    Trace.Write span = Trace.begin(Trace.Write::new);
+                    sink.write(buf, len);
+                    if (span != null) span.end(traceRoom, tracePlayer, len);
+                }
+
+                flushScheduled.set(false);
+                // 쓰는 동안 들어온 줄이 있으면 이어서 처리
+                if (lines.isEmpty() || !flushScheduled.compareAndSet(false, true)) return;
+            }
+        } catch (IOException e) {
+            flushScheduled.set(false);
+            close();
+        }
+    }
+
+    private int append(byte[] b, int len) {
+        int need = len + b.length;
+        if (need > buf.length) buf = Arrays.copyOf(buf, Math.max(need, buf.length * 2));
+        System.arraycopy(b, 0, buf, len, b.length);
+        return need;
+    }
+}
@@ -7,9 +7,23 @@ public final class Protocol {
     public static final String ROOM_CREATED = "ROOM_CREATED";
     public static final String ENTER_ROOM   = "ENTER_ROOM";
     public static final String CHAT         = "CHAT";
+    public static final String CHAT_LIMITED = "CHAT_LIMITED"; // 서버→클라: 너무 빨리 보내서 버린 채팅 (초당 2줄, 몰아서 5줄까지)
     public static final String READY        = "READY";        // [Req 3] 클라→서버: 준비 완료
     public static final String GAME_START   = "GAME_START";   // [Req 3] 서버→클라: 게임 시작
 
+    // 로비 (매칭 대기열 대신 직접 방을 고르는 경우. 한 번 사용하면 자동 매칭에서 빠진다)
+    public static final String ROOM_LIST    = "ROOM_LIST";    // 클라→서버: ROOM_LIST / 서버→클라: ROOM_LIST COUNT=n TOTAL=m
+    public static final String ROOM_INFO    = "ROOM_INFO";    // 서버→클라: ROOM_INFO ID=.. PLAYERS=k/2 HOST=<닉네임> WATCHERS=n
+    public static final String ROOM_CREATE  = "ROOM_CREATE";  // 클라→서버: 새 방 만들기 → ROOM_CREATED ID=.. P1=..
+    public static final String ROOM_JOIN    = "ROOM_JOIN";    // 클라→서버: ROOM_JOIN <id>
+    public static final String ROOM_ERROR   = "ROOM_ERROR";   // 서버→클라: ROOM_ERROR NOT_FOUND|FULL|BUSY
+
+    // 관전: 진행 중인 방의 방송을 플레이어와 똑같이 받는다 (명령은 보낼 수 없음)
+    public static final String SPECTATE       = "SPECTATE";       // 클라→서버: SPECTATE <id>
+    public static final String SPECTATE_LEAVE = "SPECTATE_LEAVE"; // 클라→서버: 관전 그만두기
+    public static final String SPECTATING     = "SPECTATING";     // 서버→클라: SPECTATING ID=.. P1=.. P2=.. SEQ=n (시작했으면 다음 줄에 STATE)
+    public static final String SPECTATE_END   = "SPECTATE_END";   // 서버→클라: SPECTATE_END ID=.. (방이 닫힘)
+
     // 러시안 룰렛
     public static final String AIM          = "AIM";          // 클라→서버: AIM SELF|ENEMY
     public static final String AIM_UPDATE   = "AIM_UPDATE";   // [Req 9] 서버→클라: AIM_UPDATE WHO=P1|P2 TARGET=...
@@ -19,5 +33,45 @@ public final class Protocol {
     public static final String FIRE_RESOLVE = "FIRE_RESOLVE"; // 서버→클라: FIRE_RESOLVE RESULT=BULLET|BLANK TARGET=SELF|ENEMY HP1=.. HP2=.. SHOT=k/6
     public static final String GAME_OVER    = "GAME_OVER";    // 서버→클라: GAME_OVER WIN=P1|P2|DRAW
 
+    // 연결 유지: 한동안 아무 입력이 없으면 서버가 PING을 보내고, 클라이언트는 PONG으로 답한다.
+    // idle.timeout.sec 동안 아무것도(PONG 포함) 오지 않으면 서버가 연결을 끊는다.
+    public static final String PING         = "PING";         // 서버→클라
+    public static final String PONG         = "PONG";         // 클라→서버 (다른 명령을 보내도 살아 있는 것으로 본다)
+    // 제한 시간: READY 대기가 길면 방을 닫고(둘 다 로비로), 턴에 발사하지 않으면 기권패 (다음에 GAME_OVER)
+    public static final String TIMEOUT      = "TIMEOUT";      // 서버→클라: TIMEOUT READY P1|P2|BOTH, TIMEOUT TURN P1|P2
+
+    // 재접속: 핸드셰이크 직후 서버가 SESSION <토큰>을 준다. 게임 중 연결이 끊기면 새 연결의 닉네임 자리에
+    // "RESUME <토큰> <받은 delta 수>"를 보내 같은 방의 같은 자리로 돌아간다 (HELLO_BIN처럼 제어문자로 시작).
+    // 서버는 RESUMED 다음에 놓친 delta들을, 너무 많이 놓쳤으면 STATE 한 줄을 보낸다.
+    // delta = GAME_START 이후 방이 방송한 압축 메시지(TURN/RELOAD/AIM_UPDATE/FIRE_RESOLVE/GAME_OVER/READY_STATUS).
+    // 모두 절대값이라 이미 받은 delta를 다시 받아도 결과가 같다.
+    public static final String SESSION       = "SESSION";       // 서버→클라: SESSION <토큰>
+    public static final String RESUME        = "\u0002RESUME";  // 클라→서버 (첫 줄): RESUME <토큰> <seq>
+    public static final String RESUMED       = "RESUMED";       // 서버→클라: RESUMED ROLE=P1|P2 P1=.. P2=.. SEQ=n
+    public static final String RESUME_FAILED = "RESUME_FAILED"; // 서버→클라: 세션 없음/방 종료 (연결을 끊는다)
+    public static final String STATE         = "STATE";         // 서버→클라: STATE SEQ=n HP1=.. HP2=.. TURN=P1 SHOT=k B=.. K=.. AIM1=.. AIM2=.. [WIN=..]
+
+    // 클러스터: 방 번호가 다른 노드의 것이면 ROOM_ERROR 대신 REDIRECT. 클라이언트는 같은 닉네임으로
+    // 그 노드에 다시 접속해 뒤에 붙은 명령 줄을 그대로 보낸다 (어느 노드로 처음 접속할지는 Directory의 ROUTE)
+    public static final String REDIRECT      = "REDIRECT";      // 서버→클라: REDIRECT <host> <port> ROOM_JOIN|SPECTATE <id>
+
+    // 바이너리 프로토콜 협상: HELLO를 받은 클라이언트가 닉네임 대신 "HELLO_BIN <닉네임>"을 보내면
+    // 서버는 텍스트 줄 BIN_OK로 답하고, 그 다음부터 양쪽 모두 Message 프레임으로 주고받는다.
+    // (닉네임에 들어갈 수 없는 제어문자로 시작하므로 기존 클라이언트의 닉네임과 겹치지 않는다)
+    public static final String HELLO_BIN    = "\u0001BIN1";
+    public static final String BIN_OK       = "BIN_OK";
+
+    // 바이너리 opcode (Message 참고)
+    public static final byte OP_TEXT         = 0x01; // 그 외 모든 메시지: UTF-8 텍스트 줄 그대로
+    public static final byte OP_TURN         = 0x10; // who
+    public static final byte OP_RELOAD       = 0x11; // idx, bullets, blanks
+    public static final byte OP_AIM_UPDATE   = 0x12; // who, self
+    public static final byte OP_FIRE_RESOLVE = 0x13; // bullet, self, hp1, hp2, bLeft, kLeft, shot
+    public static final byte OP_GAME_OVER    = 0x14; // win (0=DRAW)
+    public static final byte OP_READY_STATUS = 0x15; // bit0=P1, bit1=P2
+    public static final byte OP_READY        = 0x20; // 클라→서버
+    public static final byte OP_AIM          = 0x21; // 클라→서버: self
+    public static final byte OP_FIRE         = 0x22; // 클라→서버
+
     private Protocol() {}
 }
\ No newline at end of file
@@ -1,173 +1,503 @@
 package server;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
+/**
+ * 게임 방 1개 = 액터 1개.
+ * 외부(핸들러 스레드, 리액터, 매칭 스레드)는 onXxx()로 명령을 메일박스에 넣기만 하고,
+ * 실제 상태 변경과 방송은 공유 스케줄러 위에서 한 번에 한 스레드만 실행한다.
+ * 그래서 게임 상태에는 락이 없고, 한 플레이어의 소켓이 느려도 상대의 명령 접수는 막히지 않는다.
+ */
 public class Room {
-    private final ClientHandler p1;
-    private final ClientHandler p2;
+    static final int MAILBOX_LIMIT = 256;         // 처리 대기 명령 상한 (넘으면 버림)
+    private static final int BATCH = 32;          // 한 번 스케줄될 때 처리할 최대 명령 수
+    private static final Metrics.Counter ROOM_TIMEOUTS = Metrics.counter("rooms.timeout");
+    private static final Metrics.Counter ROOM_ERRORS = Metrics.counter("rooms.error"); // 액터 안에서 예외로 끝난 명령
+
+    // 관전자: 이보다 송신이 밀리면 플레이어를 기다리게 하지 않고 떼어 낸다
+    private static final int  MAX_SPECTATORS = 256;
+    private static final int  SPECTATOR_MAX_LINES = 128;
+    private static final long SPECTATOR_MAX_BACKLOG = 64 * 1024;
+    private static final Metrics.Counter SPECTATORS_DROPPED = Metrics.counter("spectators.dropped");
+
+    private final long id;
+    private final RoomRegistry registry;
+    private volatile ClientHandler p1; // RESUME으로 새 연결로 바뀔 수 있다
+    private volatile ClientHandler p2; // ROOM_CREATE로 만든 방은 ROOM_JOIN 전까지 null
     private final String n1;
-    private final String n2;
+    private volatile String n2;
+
+    // ==== 메일박스 ====
+    private final Executor scheduler;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
 
     // ==== 게임 상태 ====
-    private final Random rnd = new Random();
-    private final int[] cyl = new int[6];  // 1=실탄, 0=공탄
-    private int idx = 0;                   // 현재 발사칸(0~5)
-    private int hp1 = 5, hp2 = 5;          // 체력
-    private int turn = 1;                  // 1=P1, 2=P2
-    private Target aimP1 = Target.ENEMY;   // 기본 조준
-    private Target aimP2 = Target.ENEMY;
-
-    // 남은 장탄 수(표시용)
-    private int bulletsLeft = 0; // 남은 실탄 개수
-    private int blanksLeft  = 0; // 남은 공탄 개수
-
-    // === [Req 3] Ready 상태 ===
-    private boolean p1Ready = false;
-    private boolean p2Ready = false;
-
-    private enum Target { SELF, ENEMY }
-
-    public Room(ClientHandler p1, ClientHandler p2, String n1, String n2) {
-        this.p1 = p1; this.p2 = p2; this.n1 = n1; this.n2 = n2;
-        if (p1 != null) p1.setRoom(this);
+    private final IntSupplier cylinders;   // 이 방 전용 난수원 (CylinderSource, 재생 때는 기록된 탄창)
+    // 탄창, 발사칸, 체력, 턴, 조준, [Req 3] Ready, GAME_OVER 전부 (비트 배치는 RoomState)
+    private long state = RoomState.INITIAL;
+
+    // 재접속 동기화: GAME_START 이후 방송한 압축 메시지(delta)의 번호와 최근 RECENT개
+    private static final int RECENT = 32;
+    private int seq = 0;
+    private Message[] recent; // 게임이 시작될 때 만든다
+
+    // 나간 플레이어 / 레지스트리에서 제거됐는지 (액터 안에서만 변경)
+    private boolean p1Left = false;
+    private boolean p2Left = false;
+    private volatile boolean finished = false;
+
+    // 관전자 목록. 액터 안에서만 바꾸고 바꿀 때마다 새 배열로 교체한다 (관전자 입퇴장은 드물다)
+    // 그래서 채팅(RoomChat)처럼 액터 밖에서도 락 없이 읽을 수 있다.
+    // 방송은 플레이어에게 보낸 것과 같은 인코딩 버퍼를 그대로 쌓는다
+    private static final ClientHandler[] NO_SPECTATORS = new ClientHandler[0];
+    private volatile ClientHandler[] spectators = NO_SPECTATORS;
+
+    // 제한 시간 (READY 대기 / 턴마다 발사). 한 번에 하나만 걸려 있고 액터 안에서만 만진다
+    static final int TIMEOUT_READY = 1, TIMEOUT_TURN = 2;
+    private TimerWheel.Timeout timer;
+    private int timerGen; // 다시 걸거나 풀 때마다 증가: 이미 지난 단계의 만료는 무시
+
+    // 추적: ENTER_ROOM부터 GAME_START까지 (Trace.ReadyWait, 꺼져 있으면 null). 액터 안에서만
+    private Trace.ReadyWait readyWait;
+
+    // 리플레이 저널 (null이면 기록 안 함). 액터 안에서 모았다가 명령마다 commit
+    private final Journal.Recorder journal;
+
+    // 채팅은 메일박스를 거치지 않는다 (RoomChat)
+    private final RoomChat chat;
+
+    // RoomRegistry.create()를 통해서만 생성
+    Room(long id, RoomRegistry registry, Executor scheduler, ClientHandler p1, ClientHandler p2,
+         Journal.Recorder journal, IntSupplier cylinders) {
+        this.id = id;
+        this.registry = registry;
+        this.scheduler = scheduler;
+        this.journal = journal;
+        this.cylinders = cylinders;
+        this.chat = new RoomChat(this, scheduler);
+        this.p1 = p1; this.p2 = p2;
+        this.n1 = p1.getNickname();
+        this.n2 = (p2 == null) ? null : p2.getNickname();
+        p1.setRoom(this);
         if (p2 != null) p2.setRoom(this);
-        randomizeCylinder();
+        if (journal != null) journal.create(n1, n2);
+        if (journal != null) journal.commit(); // 아직 액터가 돌기 전이므로 여기서 바로
+        // 첫 탄창도 액터에서 뽑는다. 방을 만든 스레드(연결마다 새 가상 스레드일 수 있다)에서 뽑으면
+        // CylinderSource.Secure가 그 스레드용 블록을 새로 채우고 한 바이트만 쓴다. 이후 명령은 모두 이 뒤에 처리된다
+        post(this::randomizeCylinder, true);
+    }
+
+    public long getId() { return id; }
+    public String hostName() { return n1; }
+    public String guestName() { return n2; }
+    public int playerCount() { return p2 == null ? 1 : 2; }
+    public boolean isFinished() { return finished; }
+    public int spectatorCount() { return spectators.length; }
+
+    /** 메일박스에서 처리를 기다리는 명령 수 (벤치마크가 버려지지 않게 MAILBOX_LIMIT 아래로 맞출 때) */
+    int pendingCommands() { return pending.get(); }
+
+    /** 현재 게임 상태 값 (RoomState). 액터 안에서만 정확하다 */
+    long state() { return state; }
+
+    // ==== 액터 ====
+
+    // 명령을 메일박스에 넣는다. force=false이면 가득 찼을 때 버린다 (연결 종료 같은 명령은 force)
+    private boolean post(Runnable cmd, boolean force) {
+        if (pending.incrementAndGet() > MAILBOX_LIMIT && !force) {
+            pending.decrementAndGet();
+            return false;
+        }
+        mailbox.add(cmd);
+        if (scheduled.compareAndSet(false, true)) scheduler.execute(this::drain);
+        return true;
+    }
+
+    private void post(Runnable cmd) { post(cmd, false); }
+
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Runnable cmd = mailbox.poll();
+            if (cmd == null) break;
+            pending.decrementAndGet();
+            try { cmd.run(); }
+            catch (RuntimeException e) { // 명령 하나의 오류로 방 전체가 멈추지 않도록
+                ROOM_ERRORS.inc();
+                registry.logError(this, e);
+            }
+            flushPlayers(); // 이 명령으로 생긴 줄들을 연결마다 한 번의 write로
+            if (journal != null) journal.commit();
+        }
+        scheduled.set(false);
+        // 처리 도중 새 명령이 들어왔으면 다시 예약 (다른 방도 돌 수 있도록 BATCH마다 양보)
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) scheduler.execute(this::drain);
+    }
+
+    /** 상대를 기다리는 방에 두 번째 플레이어로 들어간다. 이미 찼거나 끝난 방이면 ROOM_ERROR FULL. */
+    void join(ClientHandler h) {
+        post(() -> {
+            if (p2 != null || finished) { h.send(Protocol.ROOM_ERROR + " FULL"); return; }
+            p2 = h;
+            n2 = h.getNickname();
+            h.setRoom(this);
+            if (journal != null) journal.join(n2);
+            h.send(Protocol.ROOM_STATUS + " WAITING 2/2");
+            chat.replayTo(h); // 방장이 기다리며 남긴 채팅
+            applyAnnounce();
+            registry.logJoined(this);
+        }, true);
+    }
+
+    /** 플레이어 연결이 끊겼을 때. 대기 중인 방이거나 둘 다 나가면 방을 정리한다. */
+    void onLeave(ClientHandler who) {
+        post(() -> {
+            int p = role(who);
+            if (p == 0) return; // RESUME으로 자리를 넘긴 이전 연결
+            record(Journal.LEAVE, p);
+            if (p == 1) p1Left = true;
+            else p2Left = true;
+            if (p2 == null || (p1Left && p2Left)) finish();
+        }, true);
+    }
+
+    // 레지스트리에서 제거 (GAME_OVER 또는 방이 비었을 때)
+    private void finish() {
+        if (finished) return;
+        finished = true;
+        if (journal != null) journal.event(Journal.CLOSE);
+        endReadyWait(null, false); // 시작 전에 닫힌 방 (제한 시간, 나감)
+        disarm();
+        registry.sessions().close(p1);
+        if (p2 != null) registry.sessions().close(p2);
+        registry.remove(this);
+        Message end = Message.text(Protocol.SPECTATE_END + " ID=" + id);
+        for (ClientHandler s : spectators) {
+            s.queue(end);
+            s.flush(); // 방 목록에서 빠지므로 flushPlayers()를 기다리지 않고 GAME_OVER와 함께 보낸다
+            if (s.watching() == this) s.setWatching(null);
+        }
+        spectators = NO_SPECTATORS;
     }
 
     public void announceCreatedAndReady() {
-        broadcast(Protocol.ROOM_CREATED + " P1=" + n1 + " P2=" + n2);
+        post(this::applyAnnounce, true);
+    }
+
+    private void applyAnnounce() {
+        broadcast(Protocol.ROOM_CREATED + " ID=" + id + " P1=" + n1 + " P2=" + n2);
         broadcast(Protocol.ENTER_ROOM   + " P1=" + n1 + " P2=" + n2);
+        if (!RoomState.started(state)) {
+            arm(TIMEOUT_READY, registry.readyTimeoutMs());
+            if (readyWait == null) readyWait = Trace.begin(Trace.ReadyWait::new);
+        }
+    }
+
+    // who = 마지막으로 READY한 플레이어 (상대가 기다린 쪽)
+    private void endReadyWait(ClientHandler who, boolean started) {
+        if (readyWait == null) return;
+        readyWait.end(id, who == null ? null : who.getNickname(), started);
+        readyWait = null;
     }
 
     // [Req 3] 실제 게임 시작 로직
     private void startGame() {
+        if (journal != null) journal.event(Journal.START);
         // === [Req 3-3] GAME_START 신호에 B(Bullets), K(Blanks) 정보 추가 ===
+        long s = state = RoomState.withStarted(state);
         broadcast(Protocol.GAME_START 
                 + " P1=" + n1 
                 + " P2=" + n2
-                + " B=" + bulletsLeft
-                + " K=" + blanksLeft);
+                + " B=" + RoomState.bulletsLeft(s)
+                + " K=" + RoomState.blanksLeft(s));
         // === [Req 3-3] 끝 ===
 
         // 초기 상태 알림: RELOAD는 idx(0/6)를 설정하기 위해 여전히 필요
-        broadcast(Protocol.RELOAD + " " + idx + "/6 B=" + bulletsLeft + " K=" + blanksLeft);
-        broadcast(Protocol.TURN   + " P" + turn);
+        broadcast(Message.reload(RoomState.idx(s), RoomState.bulletsLeft(s), RoomState.blanksLeft(s)));
+        broadcast(Message.turn(RoomState.turn(s)));
+        record(Journal.TURN, RoomState.turn(s));
         // [Req 9] 초기 조준 상태 방송
-        broadcast(Protocol.AIM_UPDATE + " WHO=P1 TARGET=ENEMY");
-        broadcast(Protocol.AIM_UPDATE + " WHO=P2 TARGET=ENEMY");
+        broadcast(Message.aimUpdate(1, false));
+        broadcast(Message.aimUpdate(2, false));
+        arm(TIMEOUT_TURN, registry.turnTimeoutMs());
+    }
+
+
+    // 액터 안에서만 호출 (벤치마크는 방 하나를 한 스레드에서 직접 호출)
+    void randomizeCylinder() {
+        int bits = cylinders.getAsInt() & 63; // bit i = i번째 칸
+        state = RoomState.reload(state, bits);
+        record(Journal.CYLINDER, bits);
+    }
+
+    // 액터 안에서만 호출. 쌓기만 하고 명령 처리가 끝나면 flushPlayers()로 한 번에 전송
+    // 메시지는 형식(텍스트/바이너리)별로 한 번만 인코딩되어 두 플레이어가 같이 쓴다
+    private void broadcast(Message m) {
+        if (!m.isText() && RoomState.started(state)) remember(m);
+        if (p1 != null) p1.queue(m);
+        if (p2 != null) p2.queue(m);
+        for (ClientHandler s : spectators) s.queue(m);
+    }
+
+    private void broadcast(String line) {
+        broadcast(Message.text(line));
+    }
+
+    private void remember(Message m) {
+        if (recent == null) recent = new Message[RECENT];
+        recent[++seq & (RECENT - 1)] = m;
     }
 
+    /** RESUME: 끊긴 연결 old 자리에 새 연결 h를 묶고, 놓친 delta를 (너무 많으면 STATE 한 줄을) 보낸다 */
+    void rebind(ClientHandler old, ClientHandler h, int lastSeq) {
+        post(() -> {
+            int p = role(old);
+            if (finished || p == 0) { h.send(Protocol.RESUME_FAILED); return; }
+            if (p == 1) { p1 = h; p1Left = false; }
+            else        { p2 = h; p2Left = false; }
+            record(Journal.RESUME, p);
 
-    private void randomizeCylinder() {
-        int b = 0;
-        for (int i = 0; i < 6; i++) {
-            cyl[i] = rnd.nextBoolean() ? 1 : 0;
-            if (cyl[i] == 1) b++;
+            h.queue(Message.text(Protocol.RESUMED + " ROLE=P" + p + " P1=" + n1 + " P2=" + n2 + " SEQ=" + seq));
+            if (recent != null && lastSeq >= 0 && lastSeq <= seq && seq - lastSeq <= RECENT) {
+                for (int i = lastSeq + 1; i <= seq; i++) h.queue(recent[i & (RECENT - 1)]);
+            } else if (RoomState.started(state)) {
+                h.queue(snapshot());
+            }
+            chat.replayTo(h); // 끊겨 있던 동안의 채팅도 (최근 HISTORY줄)
+            old.close(); // 반쯤 열린 채 남아 있던 이전 소켓
+        }, true);
+    }
+
+    // 게임 상태 전체를 한 줄로 (delta 대신)
+    private Message snapshot() {
+        long s = state;
+        int hp1 = RoomState.hp(s, 1), hp2 = RoomState.hp(s, 2);
+        StringBuilder sb = new StringBuilder(128).append(Protocol.STATE)
+                .append(" SEQ=").append(seq)
+                .append(" HP1=").append(hp1).append(" HP2=").append(hp2)
+                .append(" TURN=P").append(RoomState.turn(s))
+                .append(" SHOT=").append(RoomState.idx(s))
+                .append(" B=").append(RoomState.bulletsLeft(s)).append(" K=").append(RoomState.blanksLeft(s))
+                .append(" AIM1=").append(RoomState.aimSelf(s, 1) ? "SELF" : "ENEMY")
+                .append(" AIM2=").append(RoomState.aimSelf(s, 2) ? "SELF" : "ENEMY");
+        if (RoomState.gameOver(s)) {
+            sb.append(" WIN=").append(hp1 <= 0 && hp2 <= 0 ? "DRAW" : hp1 <= 0 ? "P2" : "P1");
+        }
+        return Message.text(sb.toString());
+    }
+
+    // 저널 기록용 역할 번호 (1=P1, 2=P2, 0=방에 없는 연결)
+    private int role(ClientHandler who) {
+        return (who == p1) ? 1 : (who == p2 && who != null) ? 2 : 0;
+    }
+
+    private void record(int type, int a) {
+        if (journal != null) journal.event(type, a);
+    }
+
+    private void flushPlayers() {
+        if (p1 != null) p1.flush();
+        if (p2 != null) p2.flush();
+        for (ClientHandler s : spectators) {
+            if (s.isClosed()) {
+                removeSpectator(s);
+            } else if (s.pendingOutbound() > SPECTATOR_MAX_LINES || s.backlogBytes() > SPECTATOR_MAX_BACKLOG) {
+                SPECTATORS_DROPPED.inc();
+                removeSpectator(s);
+                s.close(); // 느린 관전자: 따라잡을 때까지 기다리지 않는다
+            } else {
+                s.flush();
+            }
         }
-        idx = 0;
-        bulletsLeft = b;
-        blanksLeft  = 6 - b;
     }
 
-    public synchronized void broadcast(String line) {
-        if (p1 != null) p1.send(line);
-        if (p2 != null) p2.send(line);
+    // ==== 관전 ====
+
+    /** 관전 시작: SPECTATING 한 줄과 (게임이 시작됐으면) STATE 스냅샷 뒤로 방송을 그대로 받는다 */
+    void watch(ClientHandler h) {
+        post(() -> {
+            if (finished) { h.send(Protocol.ROOM_ERROR + " NOT_FOUND"); return; }
+            ClientHandler[] cur = spectators;
+            if (cur.length >= MAX_SPECTATORS) { h.send(Protocol.ROOM_ERROR + " FULL"); return; }
+            ClientHandler[] next = Arrays.copyOf(cur, cur.length + 1);
+            next[cur.length] = h;
+            spectators = next;
+            h.setWatching(this);
+            h.queue(Message.text(Protocol.SPECTATING + " ID=" + id + " P1=" + n1 + " P2=" + n2 + " SEQ=" + seq));
+            if (RoomState.started(state)) h.queue(snapshot());
+            chat.replayTo(h);
+        }, true);
+    }
+
+    void unwatch(ClientHandler h) {
+        post(() -> {
+            removeSpectator(h);
+            if (h.watching() == this) h.setWatching(null);
+        }, true);
     }
 
+    private void removeSpectator(ClientHandler h) {
+        ClientHandler[] cur = spectators;
+        for (int i = 0; i < cur.length; i++) {
+            if (cur[i] != h) continue;
+            ClientHandler[] next = Arrays.copyOf(cur, cur.length - 1);
+            if (i < next.length) next[i] = cur[cur.length - 1]; // 마지막 관전자를 빈 자리로
+            spectators = next;
+            return;
+        }
+    }
+
+    // 채팅(RoomChat)이 액터 밖에서 받는 사람을 고를 때
+    ClientHandler player1() { return p1; }
+    ClientHandler player2() { return p2; }
+    ClientHandler[] spectators() { return spectators; }
+    TimerWheel timers() { return registry.timers(); }
+
     public void broadcastChat(String sender, String message) {
-        broadcast(Protocol.CHAT + " " + sender + ": " + message);
+        chat.post(sender, message);
     }
 
     // ==== 클라이언트 명령 처리 ====
 
     // [Req 3] Ready 처리
-    public synchronized void onReady(ClientHandler who) {
-        if (who == p1) p1Ready = true;
-        else if (who == p2) p2Ready = true;
+    public void onReady(ClientHandler who) {
+        post(() -> applyReady(who));
+    }
+
+    private void applyReady(ClientHandler who) {
+        record(Journal.READY, role(who));
+        long s = state;
+        if (p2 == null || RoomState.gameOver(s)) return; // 상대가 아직 없거나 이미 끝난 게임
+        int p = role(who);
+        if (p != 0) state = s = RoomState.withReady(s, p);
 
-        broadcast(Protocol.ROOM_STATUS + " P1_READY=" + p1Ready + " P2_READY=" + p2Ready);
+        boolean r1 = RoomState.ready(s, 1), r2 = RoomState.ready(s, 2);
+        broadcast(Message.readyStatus(r1, r2));
 
-        if (p1Ready && p2Ready) {
+        if (r1 && r2) {
             startGame();
+            endReadyWait(who, true); // 첫 TURN까지 쌓인 뒤
         }
     }
 
     // [Req 9] 조준 상태 변경 시 서버에 저장하고 모든 클라에게 방송
-    public synchronized void onAim(ClientHandler who, String targetStr) {
-        Target t = "SELF".equalsIgnoreCase(targetStr) ? Target.SELF : Target.ENEMY;
-        String playerRole = "P_UNKNOWN";
-        
-        if (who == p1) {
-            aimP1 = t;
-            playerRole = "P1";
-        } else if (who == p2) {
-            aimP2 = t;
-            playerRole = "P2";
-        }
-        
+    public void onAim(ClientHandler who, boolean self) {
+        post(() -> {
+            Trace.Aim span = Trace.begin(Trace.Aim::new);
+            applyAim(who, self);
+            if (span != null) span.end(id, who.getNickname(), self);
+        });
+    }
+
+    private void applyAim(ClientHandler who, boolean self) {
+        int playerRole = role(who); // 0 = P_UNKNOWN
+        if (journal != null) journal.event(Journal.AIM, playerRole, self ? 1 : 0);
+        if (playerRole != 0) state = RoomState.withAim(state, playerRole, self);
+
         // 변경된 조준 상태를 모두에게 방송
-        broadcast(Protocol.AIM_UPDATE + " WHO=" + playerRole + " TARGET=" + targetStr.toUpperCase());
+        broadcast(Message.aimUpdate(playerRole, self));
     }
 
-    public synchronized void onFire(ClientHandler who) {
-        int shooter = (who == p1) ? 1 : 2;
-        if (shooter != turn) return; // 자기 턴이 아니면 무시
+    public void onFire(ClientHandler who) {
+        post(() -> {
+            Trace.Fire span = Trace.begin(Trace.Fire::new);
+            long t0 = System.nanoTime();
+            applyFire(who);
+            Metrics.FIRE_TIME.record(System.nanoTime() - t0);
+            if (span != null) span.end(id, who.getNickname());
+        });
+    }
 
-        Target t = (shooter == 1) ? aimP1 : aimP2;
-        boolean hitSelf  = (t == Target.SELF);
+    private void applyFire(ClientHandler who) {
+        record(Journal.FIRE, role(who)); // 무시되는 입력도 기록 (재생 때 같은 순서로 다시 넣는다)
+        long s = state;
+        if (RoomState.gameOver(s) || p2 == null) return;
+        int shooter = role(who);
+        if (shooter != RoomState.turn(s)) return; // 자기 턴이 아니면 무시 (방에 없는 연결은 0)
 
-        int result = cyl[idx]; // 1=실탄, 0=공탄
-        idx++;
+        boolean hitSelf = RoomState.aimSelf(s, shooter);
+        boolean bullet  = RoomState.loaded(s); // 실탄이면 true
+        s = GameEngine.fire(GameEngine.Rules.STANDARD, s); // 대미지, GAME_OVER, [Req 8] 턴 결정까지
 
-        if (result == 1) { // 대미지 적용 + 남은 실탄 수 감소
-            if (shooter == 1) {
-                if (hitSelf) hp1--; else hp2--;
-            } else {
-                if (hitSelf) hp2--; else hp1--;
-            }
-            bulletsLeft = Math.max(0, bulletsLeft - 1);
-        } else {
-            blanksLeft = Math.max(0, blanksLeft - 1);
-        }
+        int hp1 = RoomState.hp(s, 1), hp2 = RoomState.hp(s, 2);
+        int idx = RoomState.idx(s), bulletsLeft = RoomState.bulletsLeft(s), blanksLeft = RoomState.blanksLeft(s);
+        broadcast(Message.fireResolve(bullet, hitSelf, hp1, hp2, bulletsLeft, blanksLeft, idx));
+        if (journal != null) journal.resolve(bullet, hitSelf, hp1, hp2, bulletsLeft, blanksLeft, idx);
 
-        String r = (result == 1) ? "BULLET" : "BLANK";
-        String targetLabel = hitSelf ? "SELF" : "ENEMY";
-        broadcast(Protocol.FIRE_RESOLVE
-                + " RESULT=" + r
-                + " TARGET=" + targetLabel
-                + " HP1=" + hp1
-                + " HP2=" + hp2
-                + " B_LEFT=" + bulletsLeft
-                + " K_LEFT=" + blanksLeft
-                + " SHOT=" + (idx) + "/6");
-
-        if (hp1 <= 0 || hp2 <= 0) {
-            String win = (hp1 <= 0 && hp2 <= 0) ? "DRAW" : (hp1 <= 0 ? "P2" : "P1");
-            broadcast(Protocol.GAME_OVER + " WIN=" + win);
+        if (RoomState.gameOver(s)) {
+            int win = GameEngine.winner(s); // 0 = DRAW
+            state = s;
+            broadcast(Message.gameOver(win));
+            record(Journal.GAME_OVER, win);
+            finish();
             return;
         }
-
-        // === [Req 8] 턴 결정 로직 ===
-        boolean turnSwaps = true; // 기본은 턴 교대
-        if (result == 0) { // 공탄을 쐈을 때
-            if ( (shooter == 1 && hitSelf) || (shooter == 2 && hitSelf) ) {
-                // 자신에게 공탄을 쏜 경우
-                turnSwaps = false; // 턴 유지
-            }
-        }
-        // === [Req 8] 끝 ===
-
+        state = s;
 
         // 탄창 소진 → 재장전
-        if (idx >= 6) {
+        if (RoomState.empty(s)) {
             randomizeCylinder();
-            broadcast(Protocol.RELOAD + " " + idx + "/6 B=" + bulletsLeft + " K=" + blanksLeft); // 0/6 리셋 + 남은 장탄 수
+            s = state;
+            broadcast(Message.reload(RoomState.idx(s), RoomState.bulletsLeft(s), RoomState.blanksLeft(s))); // 0/6 리셋 + 남은 장탄 수
         }
 
-        // 턴 교대 (필요한 경우) 및 알림
-        if (turnSwaps) {
-            turn = (turn == 1) ? 2 : 1;
+        // 턴 교대 알림
+        int turn = RoomState.turn(s);
+        broadcast(Message.turn(turn));
+        record(Journal.TURN, turn);
+        arm(TIMEOUT_TURN, registry.turnTimeoutMs());
+    }
+
+    // ==== 제한 시간 ====
+
+    // 이전 제한 시간을 풀고 새로 건다. 만료되면 휠 스레드가 이 방의 메일박스에 넣기만 한다
+    private void arm(int kind, long ms) {
+        disarm();
+        TimerWheel wheel = registry.timers();
+        if (wheel == null || ms <= 0) return;
+        int gen = timerGen;
+        timer = wheel.schedule(ms, () -> post(() -> { if (gen == timerGen) applyTimeout(kind); }, true));
+    }
+
+    private void disarm() {
+        timerGen++;
+        if (timer != null) { timer.cancel(); timer = null; }
+    }
+
+    /** 저널 재생: 기록된 제한 시간 만료를 그대로 적용 */
+    void timeout(int kind) {
+        post(() -> applyTimeout(kind), true);
+    }
+
+    // READY: 시작 전이면 준비 안 한 쪽을 알리고 방을 닫는다 (두 사람 모두 로비로)
+    // TURN : 턴인 플레이어의 기권패
+    private void applyTimeout(int kind) {
+        long s = state;
+        if (finished || p2 == null || RoomState.gameOver(s)) return;
+        if (kind == TIMEOUT_READY) {
+            if (RoomState.started(s)) return;
+            record(Journal.TIMEOUT, kind);
+            boolean r1 = RoomState.ready(s, 1), r2 = RoomState.ready(s, 2);
+            broadcast(Protocol.TIMEOUT + " READY " + (!r1 && !r2 ? "BOTH" : !r1 ? "P1" : "P2"));
+            state = RoomState.withGameOver(s); // 닫힌 방에 늦게 온 READY로 게임이 시작되지 않도록
+            ROOM_TIMEOUTS.inc();
+            finish();
+            return;
         }
-        broadcast(Protocol.TURN + " P" + turn);
+        int loser = RoomState.turn(s), win = 3 - loser;
+        record(Journal.TIMEOUT, kind);
+        broadcast(Protocol.TIMEOUT + " TURN P" + loser);
+        state = RoomState.withGameOver(s);
+        broadcast(Message.gameOver(win));
+        record(Journal.GAME_OVER, win);
+        ROOM_TIMEOUTS.inc();
+        finish();
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 방 하나의 채팅. 게임 명령과 같은 메일박스를 쓰지 않으므로 채팅이 아무리 몰려도
+ * FIRE/AIM 처리가 밀리거나 (메일박스가 차서) 버려지지 않는다.
+ *
+ * 받은 줄은 큐에 쌓아 두고 BATCH_MS 동안 모은 뒤 한 번에 보낸다.
+ * 한 묶음은 형식(텍스트/바이너리)별로 한 번만 인코딩해 모든 받는 사람이 같은 byte[]를 쓴다.
+ * 최근 HISTORY줄은 나중에 들어온 사람(상대, 관전자, 재접속)에게 다시 보낸다.
+ */
+final class RoomChat {
+    static final int HISTORY = 50;    // 방마다 남기는 최근 줄 수
+    static final int MAX_LEN = 200;   // 한 줄 최대 글자 수 (넘으면 자른다)
+    private static final int BATCH_MS = 20;   // 이만큼 모아서 보낸다
+    private static final int MAX_BATCH = 64;  // 한 묶음 최대 줄 수 (나머지는 바로 다음 묶음)
+
+    private static final Metrics.Counter LINES   = Metrics.counter("chat.lines");
+    private static final Metrics.Counter BATCHES = Metrics.counter("chat.batches");
+    static final Metrics.Counter LIMITED = Metrics.counter("chat.rate.limited"); // ClientHandler의 token bucket
+
+    private final Room room;
+    private final Executor scheduler;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // 최근 줄 (링 버퍼). deliver()와 나중에 들어온 사람 쪽에서만 잠깐 잡는다 (게임 경로는 이 락을 모른다)
+    private String[] history; // 첫 채팅 때 만든다
+    private int head, size;
+
+    RoomChat(Room room, Executor scheduler) {
+        this.room = room;
+        this.scheduler = scheduler;
+    }
+
+    /** 어느 스레드에서든: 줄을 쌓고, 예약된 묶음이 없으면 BATCH_MS 뒤로 예약 */
+    void post(String sender, String text) {
+        if (text.length() > MAX_LEN) text = text.substring(0, MAX_LEN);
+        pending.add(Protocol.CHAT + " " + sender + ": " + text);
+        LINES.inc();
+        if (scheduled.compareAndSet(false, true)) {
+            TimerWheel wheel = room.timers();
+            if (wheel != null) wheel.schedule(BATCH_MS, () -> scheduler.execute(this::deliver));
+            else scheduler.execute(this::deliver); // 휠이 없으면 (벤치마크) 모으지 않고 바로
+        }
+    }
+
+    // 한 번에 하나만 돈다 (scheduled가 true인 동안). 그래서 모든 받는 사람이 같은 순서로 받는다
+    private void deliver() {
+        ByteArrayOutputStream text = new ByteArrayOutputStream(512), bin = new ByteArrayOutputStream(512);
+        int n = 0;
+        String line;
+        while (n < MAX_BATCH && (line = pending.poll()) != null) {
+            Message m = Message.text(line);
+            text.writeBytes(m.lineBytes());
+            bin.writeBytes(m.frame());
+            remember(line);
+            n++;
+        }
+        if (n > 0) {
+            BATCHES.inc();
+            byte[] t = text.toByteArray(), b = bin.toByteArray();
+            send(room.player1(), t, b, n);
+            send(room.player2(), t, b, n);
+            for (ClientHandler s : room.spectators()) send(s, t, b, n);
+        }
+        scheduled.set(false);
+        // 비우는 동안 들어온 줄 (그쪽에서는 예약이 이미 있는 것으로 보고 넘어갔다)
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) scheduler.execute(this::deliver);
+    }
+
+    private static void send(ClientHandler h, byte[] text, byte[] bin, int lines) {
+        if (h == null) return;
+        h.queueEncoded(text, bin, lines);
+        h.flush();
+    }
+
+    private synchronized void remember(String line) {
+        if (history == null) history = new String[HISTORY];
+        history[(head + size) % HISTORY] = line;
+        if (size < HISTORY) size++;
+        else head = (head + 1) % HISTORY;
+    }
+
+    /** 나중에 들어온 사람에게 최근 줄을 (오래된 것부터) 쌓는다. 전송은 호출한 쪽의 flush */
+    synchronized void replayTo(ClientHandler h) {
+        for (int i = 0; i < size; i++) h.queue(Message.text(history[(head + i) % HISTORY]));
+    }
+}
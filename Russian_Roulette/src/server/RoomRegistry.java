@@ -0,0 +1,216 @@
+package server;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * 살아있는 Room 전체를 방 번호로 관리한다.
+ * 코어 수에 맞춰 여러 개의 ConcurrentHashMap(샤드)으로 나눠 담아
+ * 생성/조회/삭제가 한 맵의 리사이즈나 카운터에 몰리지 않게 한다.
+ * GAME_OVER 또는 양쪽 모두 나간 방은 Room이 스스로 remove()를 호출해 정리된다.
+ *
+ * 클러스터에서는 방 번호의 위쪽 비트가 방을 가진 노드 번호다 (노드 0 = 단독 서버, 번호가 예전과 같다).
+ * 다른 노드의 방 번호로 들어온 ROOM_JOIN/SPECTATE는 그 노드 주소와 함께 REDIRECT로 돌려보낸다.
+ */
+public class RoomRegistry {
+    private static final int MAX_LIST = 100; // ROOM_LIST 한 번에 보내는 최대 개수
+    static final int NODE_SHIFT = 40;        // 방 번호 = 노드 번호 << 40 | 노드 안 일련번호
+    static final int MAX_NODE = (1 << (63 - NODE_SHIFT)) - 1;
+
+    private final Consumer<String> log;
+    private final Executor scheduler; // 모든 Room 액터가 공유
+    private final Journal.Appender journal; // null이면 기록하지 않음
+    private final CylinderSource rng;
+    private final Sessions sessions = new Sessions();
+    // 방 제한 시간 (ServerCore가 start()에서 설정. 휠이 없으면 제한 없음: 벤치마크, 저널 재생)
+    private volatile TimerWheel timers;
+    private volatile long readyTimeoutMs, turnTimeoutMs;
+    private final ConcurrentHashMap<Long, Room>[] shards;
+    private final int mask;
+    private final int nodeId;
+    private final AtomicLong nextId;
+    private volatile ClusterNode cluster; // 클러스터 모드일 때 start()~stop() 동안
+
+    private final LongAdder created  = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+
+    public RoomRegistry(Consumer<String> log, Executor scheduler) {
+        this(log, scheduler, null, CylinderSource.of(CylinderSource.Mode.SPLITTABLE, CylinderSource.randomSeed()), 0);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RoomRegistry(Consumer<String> log, Executor scheduler, Journal.Appender journal, CylinderSource rng, int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) throw new IllegalArgumentException("node id out of range: " + nodeId);
+        this.log = log;
+        this.nodeId = nodeId;
+        this.nextId = new AtomicLong(((long) nodeId << NODE_SHIFT) + 1);
+        this.scheduler = scheduler;
+        this.journal = journal;
+        this.rng = rng;
+        int n = 1;
+        while (n < Runtime.getRuntime().availableProcessors() * 2) n <<= 1; // 2의 거듭제곱
+        shards = new ConcurrentHashMap[n];
+        for (int i = 0; i < n; i++) shards[i] = new ConcurrentHashMap<>();
+        mask = n - 1;
+    }
+
+    private ConcurrentHashMap<Long, Room> shard(long id) {
+        long h = id * 0x9E3779B97F4A7C15L; // 연속된 번호가 샤드에 고르게 퍼지도록
+        return shards[(int) (h >>> 32) & mask];
+    }
+
+    /** 새 방을 만들어 등록한다. p2가 null이면 상대를 기다리는 방. */
+    public Room create(ClientHandler p1, ClientHandler p2) {
+        return create(p1, p2, null);
+    }
+
+    // cylinders: 탄창 내용을 정해서 넣을 때 (저널 재생). null이면 CylinderSource에서 방 전용으로
+    Room create(ClientHandler p1, ClientHandler p2, IntSupplier cylinders) {
+        Trace.RoomCreate span = Trace.begin(Trace.RoomCreate::new);
+        long id = nextId.getAndIncrement();
+        Journal.Recorder rec = (journal == null) ? null : new Journal.Recorder(journal, id);
+        if (cylinders == null) cylinders = rng.forRoom(id);
+        Room room = new Room(id, this, scheduler, p1, p2, rec, cylinders);
+        shard(id).put(id, room);
+        created.increment();
+        if (span != null) span.end(id, p1.getNickname(), p2 == null ? null : p2.getNickname());
+        return room;
+    }
+
+    public Room get(long id) { return shard(id).get(id); }
+
+    /** 방 번호를 만든 노드 */
+    static int nodeOf(long id) { return (int) (id >>> NODE_SHIFT); }
+
+    void remove(Room room) {
+        if (shard(room.getId()).remove(room.getId(), room)) finished.increment();
+    }
+
+    public int size() {
+        int n = 0;
+        for (ConcurrentHashMap<Long, Room> m : shards) n += m.size();
+        return n;
+    }
+
+    Sessions sessions() { return sessions; }
+
+    void setTimeouts(TimerWheel timers, long readyMs, long turnMs) {
+        this.readyTimeoutMs = readyMs;
+        this.turnTimeoutMs = turnMs;
+        this.timers = timers;
+    }
+
+    void setCluster(ClusterNode cluster) { this.cluster = cluster; }
+
+    TimerWheel timers() { return timers; }
+    long readyTimeoutMs() { return readyTimeoutMs; }
+    long turnTimeoutMs()  { return turnTimeoutMs; }
+
+    public long roomsCreated()  { return created.sum(); }
+    public long roomsFinished() { return finished.sum(); }
+
+    public void forEach(Consumer<Room> action) {
+        for (ConcurrentHashMap<Long, Room> m : shards) m.values().forEach(action);
+    }
+
+    // ==== 로비 명령 (ClientHandler에서 호출) ====
+
+    void sendList(ClientHandler h) {
+        List<String> lines = new ArrayList<>();
+        forEach(r -> {
+            if (lines.size() >= MAX_LIST) return;
+            lines.add(Protocol.ROOM_INFO + " ID=" + r.getId()
+                    + " PLAYERS=" + r.playerCount() + "/2"
+                    + " HOST=" + r.hostName()
+                    + " WATCHERS=" + r.spectatorCount());
+        });
+        // 목록 전체를 쌓고 한 번에 보낸다 (줄마다 send()면 줄마다 write)
+        h.queue(Message.text(Protocol.ROOM_LIST + " COUNT=" + lines.size() + " TOTAL=" + size()));
+        for (String line : lines) h.queue(Message.text(line));
+        h.flush();
+    }
+
+    void createFor(ClientHandler h) {
+        if (!h.claimForLobby()) { h.send(Protocol.ROOM_ERROR + " BUSY"); return; }
+        Room room = create(h, null);
+        h.send(Protocol.ROOM_CREATED + " ID=" + room.getId() + " P1=" + h.getNickname());
+        h.send(Protocol.ROOM_STATUS + " WAITING 1/2");
+        log.accept("[Server] Room " + room.getId() + " created by " + h.getNickname());
+    }
+
+    void join(ClientHandler h, String idText) {
+        long id = parseId(idText);
+        Room room = get(id);
+        if (room == null) { notFound(h, id, Protocol.ROOM_JOIN); return; }
+        if (room.playerCount() >= 2) { h.send(Protocol.ROOM_ERROR + " FULL"); return; }
+        if (!h.claimForLobby()) { h.send(Protocol.ROOM_ERROR + " BUSY"); return; }
+        room.join(h); // 결과(입장 또는 ROOM_ERROR FULL)는 방 액터가 보낸다
+    }
+
+    void spectate(ClientHandler h, String idText) {
+        long id = parseId(idText);
+        Room room = get(id);
+        if (room == null) { notFound(h, id, Protocol.SPECTATE); return; }
+        if (!h.claimForLobby()) { h.send(Protocol.ROOM_ERROR + " BUSY"); return; } // 자기 게임 중에는 관전 불가
+        Room old = h.watching();
+        if (old == room) return;
+        if (old != null) old.unwatch(h);
+        room.watch(h); // 결과(SPECTATING 또는 ROOM_ERROR)는 방 액터가 보낸다
+    }
+
+    private static long parseId(String idText) {
+        try { return Long.parseLong(idText.trim()); }
+        catch (NumberFormatException e) { return 0; } // 0번 방은 없다
+    }
+
+    // 다른 노드의 방이면 REDIRECT <host> <port> <명령 줄> (클라이언트가 그 노드에 다시 접속해 같은 명령을 보낸다)
+    private void notFound(ClientHandler h, long id, String command) {
+        ClusterNode c = cluster;
+        InetSocketAddress addr = (c == null || id <= 0) ? null : c.addressOf(nodeOf(id));
+        if (addr == null) { h.send(Protocol.ROOM_ERROR + " NOT_FOUND"); return; }
+        Metrics.REDIRECTS.inc();
+        h.send(Protocol.REDIRECT + " " + addr.getHostString() + " " + addr.getPort() + " " + command + " " + id);
+    }
+
+    /**
+     * RESUME <토큰> <seq>: 게임 중에 끊긴 자리로 새 연결을 다시 묶는다 (핸드셰이크 직후).
+     * 실패하면 RESUME_FAILED만 보낸다 (클라이언트가 끊고 새로 접속한다).
+     */
+    void resume(ClientHandler h) {
+        String[] a = h.getNickname().substring(Protocol.RESUME.length()).trim().split("\\s+");
+        ClientHandler old = sessions.find(a[0]);
+        int seq;
+        try { seq = (a.length > 1) ? Integer.parseInt(a[1]) : -1; }
+        catch (NumberFormatException e) { seq = -1; }
+
+        Room room = (old == null) ? null : old.room();
+        if (room == null || room.isFinished() || !sessions.transfer(old, h)) {
+            Metrics.RESUME_FAILED.inc();
+            h.send(Protocol.RESUME_FAILED);
+            return;
+        }
+        h.resumeAs(old);
+        h.claimForMatch(); // 자동 매칭 대상에서 빠진다
+        h.setRoom(room);   // rebind 전에 끊겨도 onLeave가 방 액터에서 rebind 뒤에 처리된다
+        room.rebind(old, h, seq);
+        Metrics.RESUMED.inc();
+        log.accept("[Server] " + h.getNickname() + " resumed room " + room.getId() + " (seq " + seq + ")");
+    }
+
+    void logJoined(Room room) {
+        log.accept("[Server] Room " + room.getId() + " READY: " + room.hostName() + " vs " + room.guestName());
+    }
+
+    // 예외가 난 곳 한 줄만 (스택 전체는 로그 창/파일을 덮는다)
+    void logError(Room room, RuntimeException e) {
+        StackTraceElement[] at = e.getStackTrace();
+        log.accept("[Server] Room " + room.getId() + " command failed: " + e + (at.length > 0 ? " at " + at[0] : ""));
+    }
+}
@@ -0,0 +1,85 @@
+package server;
+
+/**
+ * 방 하나의 게임 상태 전체를 long 하나에 담는다 (Room 액터 전용 값).
+ * 객체나 배열이 없으므로 스냅샷은 값 복사 한 번이고, 그대로 저널에 쓰거나 비교/해시/CAS할 수 있다.
+ *
+ *   비트  0- 5  탄창 (bit i = i번째 칸이 실탄)
+ *         6- 8  idx  다음에 쏠 칸 (0~6, 6 = 소진)
+ *         9-11  hp1
+ *        12-14  hp2
+ *        15-16  turn (1=P1, 2=P2)
+ *        17/18  P1/P2 조준 (1=SELF)
+ *        19/20  P1/P2 READY
+ *        21     GAME_OVER
+ *        22     GAME_START 이후 (재접속 동기화용 delta 번호를 이때부터 센다)
+ *
+ * 남은 실탄 = 아직 쏘지 않은 칸(idx 이상)의 비트 수, 남은 공탄 = 남은 칸 - 남은 실탄.
+ * 6칸보다 짧은 탄창 (Simulator의 규칙 실험)은 위쪽 칸만 쓰고 idx를 6-칸 수에서 시작한다.
+ */
+final class RoomState {
+    static final int MAX_HP = 5;
+    static final int CHAMBERS = 6;
+
+    private static final int IDX = 6, HP1 = 9, HP2 = 12, TURN = 15, AIM = 17, READY = 19, OVER = 21, STARTED = 22;
+
+    /** 새 방: 체력 5/5, P1 턴, 둘 다 ENEMY 조준, 빈 탄창(idx=6, 곧 reload) */
+    static final long INITIAL = ((long) CHAMBERS << IDX) | ((long) MAX_HP << HP1) | ((long) MAX_HP << HP2) | (1L << TURN);
+
+    private RoomState() {}
+
+    /** 체력만 다른 새 방 상태 (hp는 1~7) */
+    static long initial(int hp) {
+        return withHp(withHp(INITIAL, 1, hp), 2, hp);
+    }
+
+    static int cylinder(long s)       { return (int) s & 63; }
+    static int idx(long s)            { return (int) (s >>> IDX) & 7; }
+    static int hp(long s, int p)      { return (int) (s >>> (p == 1 ? HP1 : HP2)) & 7; }
+    static int turn(long s)           { return (int) (s >>> TURN) & 3; }
+    static boolean aimSelf(long s, int p) { return (s & (1L << (AIM + p - 1))) != 0; }
+    static boolean ready(long s, int p)   { return (s & (1L << (READY + p - 1))) != 0; }
+    static boolean gameOver(long s)   { return (s & (1L << OVER)) != 0; }
+    static boolean started(long s)    { return (s & (1L << STARTED)) != 0; }
+
+    static int bulletsLeft(long s)    { return Long.bitCount((s & 63) >>> idx(s)); }
+    static int blanksLeft(long s)     { return CHAMBERS - idx(s) - bulletsLeft(s); }
+    static boolean loaded(long s)     { return ((s >>> idx(s)) & 1) != 0; } // 다음 칸이 실탄인가
+    static boolean empty(long s)      { return idx(s) >= CHAMBERS; }
+
+    /** 새 탄창을 넣고 idx를 0으로 */
+    static long reload(long s, int bits) {
+        return (s & ~(63L | (7L << IDX))) | (bits & 63);
+    }
+
+    /** chambers칸짜리 새 탄창 (bits의 아래 chambers비트). 위쪽 칸에 넣고 idx를 CHAMBERS - chambers로 */
+    static long reload(long s, int bits, int chambers) {
+        int skip = CHAMBERS - chambers;
+        return reload(s, bits << skip) | ((long) skip << IDX);
+    }
+
+    /** 다음 칸으로 (쏜 뒤) */
+    static long advance(long s)       { return s + (1L << IDX); }
+
+    static long withHp(long s, int p, int hp) {
+        int shift = (p == 1) ? HP1 : HP2;
+        return (s & ~(7L << shift)) | ((long) (hp & 7) << shift);
+    }
+
+    static long withTurn(long s, int p) { return (s & ~(3L << TURN)) | ((long) p << TURN); }
+    static long withAim(long s, int p, boolean self)  { return with(s, AIM + p - 1, self); }
+    static long withReady(long s, int p)              { return with(s, READY + p - 1, true); }
+    static long withGameOver(long s)                  { return with(s, OVER, true); }
+    static long withStarted(long s)                   { return with(s, STARTED, true); }
+
+    private static long with(long s, int bit, boolean on) {
+        return on ? s | (1L << bit) : s & ~(1L << bit);
+    }
+
+    /** 디버깅/로그용 */
+    static String toString(long s) {
+        return "cyl=" + Integer.toBinaryString(cylinder(s)) + " idx=" + idx(s) + " hp=" + hp(s, 1) + "/" + hp(s, 2)
+                + " turn=P" + turn(s) + " aim=" + (aimSelf(s, 1) ? "S" : "E") + (aimSelf(s, 2) ? "S" : "E")
+                + " ready=" + (ready(s, 1) ? 1 : 0) + (ready(s, 2) ? 1 : 0) + (started(s) ? " started" : "") + (gameOver(s) ? " over" : "");
+    }
+}
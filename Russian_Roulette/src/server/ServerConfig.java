@@ -0,0 +1,200 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 서버 설정 (포트, 스레드 모드, 각종 한도).
+ * 설정 파일(.properties)과 명령줄 인자에서 읽고, 명령줄이 파일보다 우선한다.
+ *
+ *   java -cp bin server.ServerMain 7777
+ *   java -cp bin server.ServerMain --config=server.properties --mode=NIO --reactors=4
+ *
+ * 키: port, mode, handshake.timeout.ms, reactors, room.workers, acceptors, accept.backlog,
+ *     outbound.max.lines, outbound.max.bytes, log.file, log.buffer, stats.port, stats.dump.sec,
+ *     journal.dir, journal.segment.mb, journal.flush.ms, rng, rng.seed,
+ *     timer.tick.ms, heartbeat.sec, idle.timeout.sec, ready.timeout.sec, turn.timeout.sec,
+ *     cluster.directory, cluster.node, cluster.advertise, cluster.load.ms, bot.wait.sec, bot.think.ms, trace.spans
+ */
+public final class ServerConfig {
+    private static final Set<String> KEYS = Set.of(
+            "port", "mode", "handshake.timeout.ms", "reactors", "room.workers", "acceptors", "accept.backlog",
+            "outbound.max.lines", "outbound.max.bytes", "log.file", "log.buffer", "stats.port", "stats.dump.sec",
+            "journal.dir", "journal.segment.mb", "journal.flush.ms", "rng", "rng.seed",
+            "timer.tick.ms", "heartbeat.sec", "idle.timeout.sec", "ready.timeout.sec", "turn.timeout.sec",
+            "cluster.directory", "cluster.node", "cluster.advertise", "cluster.load.ms", "bot.wait.sec", "bot.think.ms",
+            "trace.spans");
+
+    public final int port;
+    public final ServerCore.IoMode mode;
+    public final int handshakeTimeoutMs;  // 닉네임 수신 제한 시간
+    public final int reactors;            // NIO 리액터 스레드 수 (0=코어 수 / 2)
+    public final int roomWorkers;         // Room 액터 스케줄러 스레드 수 (0=코어 수)
+    public final int acceptors;           // accept 스레드 수 (2 이상이면 가능할 때 SO_REUSEPORT 소켓을 스레드마다)
+    public final int acceptBacklog;       // 소켓마다 커널 accept 대기열 길이
+    public final int maxPendingLines;     // 연결당 송신 대기 메시지 수 한도
+    public final long maxBacklogBytes;    // 연결당 커널로 못 넘긴 바이트 한도
+    public final String logFile;          // null이면 표준 출력만
+    public final int logBuffer;           // 비동기 로그 링 버퍼 크기 (넘치면 버림)
+    public final int statsPort;           // 통계 HTTP 포트, 127.0.0.1에만 열림 (0=끔)
+    public final int statsDumpSec;        // 통계를 로그로 남기는 주기 (0=끔)
+    public final String journalDir;       // 리플레이 저널 디렉터리 (null이면 기록 안 함)
+    public final int journalSegmentMb;    // 저널 세그먼트 파일 크기
+    public final int journalFlushMs;      // 저널을 디스크에 내리는 주기 (group commit)
+    public final CylinderSource.Mode rng; // 탄창 난수원 (SPLITTABLE=빠르고 재현 가능, SECURE=예측 불가)
+    public final Long rngSeed;            // SPLITTABLE 마스터 시드 (null이면 시작할 때마다 새로)
+    public final int timerTickMs;         // 타이밍 휠 한 칸 (제한 시간의 정밀도)
+    public final int heartbeatSec;        // 이만큼 조용한 연결에 PING (0=하트비트 끔)
+    public final int idleTimeoutSec;      // 이만큼 아무것도 안 온 연결은 끊는다
+    public final int readyTimeoutSec;     // 둘 다 들어온 뒤 READY 대기 (0=무제한)
+    public final int turnTimeoutSec;      // 턴마다 발사 제한 시간, 넘기면 기권패 (0=무제한)
+    public final String clusterDirectory; // Directory 주소 host:port (null이면 단독 서버)
+    public final int clusterNode;         // 노드 번호, 방 번호 위쪽 비트에 들어간다 (단독 서버는 0)
+    public final String clusterAdvertise; // 다른 노드/클라이언트가 이 서버에 접속할 호스트
+    public final int clusterLoadMs;       // 디렉터리에 부하를 알리는 주기
+    public final int botWaitSec;          // 짝 없이 이만큼 기다리면 봇과 붙인다 (0=봇 없음)
+    public final int botThinkMs;          // 봇이 자기 턴에 쏘기 전에 기다리는 시간
+    public final boolean traceSpans;      // 매치 구간별 시간을 span.* 히스토그램으로 (JFR 이벤트는 녹화만 켜면 나온다)
+
+    private ServerConfig(Properties p) {
+        port               = intValue(p, "port", 7777);
+        mode               = ServerCore.IoMode.valueOf(p.getProperty("mode", "BLOCKING").trim().toUpperCase(Locale.ROOT));
+        handshakeTimeoutMs = intValue(p, "handshake.timeout.ms", 10_000);
+        reactors           = intValue(p, "reactors", 0);
+        roomWorkers        = intValue(p, "room.workers", 0);
+        acceptors          = intValue(p, "acceptors", 1);
+        acceptBacklog      = intValue(p, "accept.backlog", Acceptors.DEFAULT_BACKLOG);
+        maxPendingLines    = intValue(p, "outbound.max.lines", Outbound.MAX_PENDING_LINES);
+        maxBacklogBytes    = longValue(p, "outbound.max.bytes", Outbound.MAX_BACKLOG_BYTES);
+        logFile            = p.getProperty("log.file");
+        logBuffer          = intValue(p, "log.buffer", 8192);
+        statsPort          = intValue(p, "stats.port", 0);
+        statsDumpSec       = intValue(p, "stats.dump.sec", 0);
+        journalDir         = p.getProperty("journal.dir");
+        journalSegmentMb   = intValue(p, "journal.segment.mb", 64);
+        journalFlushMs     = intValue(p, "journal.flush.ms", 20);
+        rng                = CylinderSource.Mode.valueOf(p.getProperty("rng", "SPLITTABLE").trim().toUpperCase(Locale.ROOT));
+        rngSeed            = p.getProperty("rng.seed") == null ? null : longValue(p, "rng.seed", 0);
+        timerTickMs        = intValue(p, "timer.tick.ms", 100);
+        heartbeatSec       = intValue(p, "heartbeat.sec", 15);
+        idleTimeoutSec     = intValue(p, "idle.timeout.sec", 45);
+        readyTimeoutSec    = intValue(p, "ready.timeout.sec", 60);
+        turnTimeoutSec     = intValue(p, "turn.timeout.sec", 30);
+        clusterDirectory   = p.getProperty("cluster.directory");
+        clusterNode        = intValue(p, "cluster.node", 0);
+        clusterAdvertise   = p.getProperty("cluster.advertise", "127.0.0.1");
+        clusterLoadMs      = intValue(p, "cluster.load.ms", 1000);
+        botWaitSec         = intValue(p, "bot.wait.sec", 20);
+        botThinkMs         = intValue(p, "bot.think.ms", 700);
+        traceSpans         = Boolean.parseBoolean(p.getProperty("trace.spans", "false").trim());
+
+        // LOOPBACK은 LoopbackTransport.shared()로만 받으므로 서버 프로세스 밖에서는 아무도 접속할 수 없다
+        if (mode == ServerCore.IoMode.LOOPBACK) throw new IllegalArgumentException("mode must be BLOCKING, VIRTUAL or NIO (LOOPBACK is in-process only)");
+        if (port < 0 || port > 65535) throw new IllegalArgumentException("port out of range: " + port);
+        if (statsPort < 0 || statsPort > 65535) throw new IllegalArgumentException("stats.port out of range: " + statsPort);
+        if (statsDumpSec < 0) throw new IllegalArgumentException("stats.dump.sec must not be negative");
+        if (journalSegmentMb <= 0 || journalSegmentMb > 1024 || journalFlushMs <= 0) {
+            throw new IllegalArgumentException("journal.segment.mb must be 1..1024 and journal.flush.ms positive");
+        }
+        if (timerTickMs <= 0 || heartbeatSec < 0 || readyTimeoutSec < 0 || turnTimeoutSec < 0) {
+            throw new IllegalArgumentException("timer.tick.ms must be positive and timeouts must not be negative");
+        }
+        if (heartbeatSec > 0 && idleTimeoutSec <= heartbeatSec) {
+            throw new IllegalArgumentException("idle.timeout.sec must be greater than heartbeat.sec");
+        }
+        if (clusterNode < 0 || clusterNode > RoomRegistry.MAX_NODE) {
+            throw new IllegalArgumentException("cluster.node must be 0.." + RoomRegistry.MAX_NODE);
+        }
+        if (clusterDirectory != null && (clusterNode == 0 || clusterDirectory.lastIndexOf(':') <= 0)) {
+            throw new IllegalArgumentException("cluster.directory needs host:port and a non-zero cluster.node");
+        }
+        // 보고 사이에 디렉터리가 노드를 죽은 것으로 보지 않도록 (한 번 늦어도 버티게 절반 미만)
+        if (clusterLoadMs <= 0 || clusterLoadMs >= Directory.STALE_MS / 2) {
+            throw new IllegalArgumentException("cluster.load.ms must be 1.." + (Directory.STALE_MS / 2 - 1));
+        }
+        if (acceptors < 1 || acceptors > 64) throw new IllegalArgumentException("acceptors must be 1..64");
+        if (acceptBacklog <= 0) throw new IllegalArgumentException("accept.backlog must be positive");
+        if (botWaitSec < 0 || botThinkMs < 0) throw new IllegalArgumentException("bot.wait.sec and bot.think.ms must not be negative");
+        if (handshakeTimeoutMs <= 0 || maxPendingLines <= 0 || maxBacklogBytes <= 0 || logBuffer <= 0 || reactors < 0 || roomWorkers < 0) {
+            throw new IllegalArgumentException("limits must be positive");
+        }
+    }
+
+    /** 모든 값이 기본값인 설정 (GUI 서버) */
+    public static ServerConfig defaults() {
+        return new ServerConfig(new Properties());
+    }
+
+    /**
+     * 명령줄 인자 해석. "--key=value", "--config=파일", 그리고 기존 실행 방법과 같은 맨 숫자 하나(포트).
+     * 잘못된 값이면 IllegalArgumentException.
+     */
+    public static ServerConfig fromArgs(String[] args) throws IOException {
+        Properties file = new Properties();
+        Properties cli = new Properties();
+        for (String a : args) {
+            if (a.matches("\\d+")) { cli.setProperty("port", a); continue; }
+            if (!a.startsWith("--") || a.indexOf('=') < 0) throw new IllegalArgumentException("bad argument: " + a);
+            String key = a.substring(2, a.indexOf('=')), value = a.substring(a.indexOf('=') + 1);
+            if (key.equals("config")) {
+                try (InputStream in = Files.newInputStream(Path.of(value))) { file.load(in); }
+            } else {
+                cli.setProperty(key, value);
+            }
+        }
+        file.putAll(cli); // 명령줄 우선
+        for (String key : file.stringPropertyNames()) {
+            if (!KEYS.contains(key)) throw new IllegalArgumentException("unknown option: " + key);
+        }
+        return new ServerConfig(file);
+    }
+
+    Outbound.Limits outboundLimits() {
+        return new Outbound.Limits(maxPendingLines, maxBacklogBytes);
+    }
+
+    int reactorThreads() {
+        return reactors > 0 ? reactors : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    CylinderSource cylinderSource() {
+        return CylinderSource.of(rng, rngSeed != null ? rngSeed : CylinderSource.randomSeed());
+    }
+
+    int roomThreads() {
+        return roomWorkers > 0 ? roomWorkers : Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public String toString() {
+        return "port=" + port + " mode=" + mode + " handshake.timeout.ms=" + handshakeTimeoutMs
+                + " reactors=" + reactorThreads() + " room.workers=" + roomThreads()
+                + " acceptors=" + acceptors + " accept.backlog=" + acceptBacklog
+                + " outbound.max.lines=" + maxPendingLines + " outbound.max.bytes=" + maxBacklogBytes
+                + " log.file=" + logFile + " log.buffer=" + logBuffer
+                + " stats.port=" + statsPort + " stats.dump.sec=" + statsDumpSec
+                + " journal.dir=" + journalDir + " journal.segment.mb=" + journalSegmentMb + " journal.flush.ms=" + journalFlushMs
+                + " rng=" + rng + (rngSeed != null ? " rng.seed=" + rngSeed : "")
+                + " timer.tick.ms=" + timerTickMs + " heartbeat.sec=" + heartbeatSec + " idle.timeout.sec=" + idleTimeoutSec
+                + " ready.timeout.sec=" + readyTimeoutSec + " turn.timeout.sec=" + turnTimeoutSec
+                + " bot.wait.sec=" + botWaitSec + " bot.think.ms=" + botThinkMs + " trace.spans=" + traceSpans
+                + (clusterDirectory != null ? " cluster.directory=" + clusterDirectory + " cluster.node=" + clusterNode
+                        + " cluster.advertise=" + clusterAdvertise + " cluster.load.ms=" + clusterLoadMs : "");
+    }
+
+    private static int intValue(Properties p, String key, int def) {
+        return (int) longValue(p, key, def);
+    }
+
+    private static long longValue(Properties p, String key, long def) {
+        String v = p.getProperty(key);
+        if (v == null || v.isBlank()) return def;
+        try { return Long.parseLong(v.trim()); }
+        catch (NumberFormatException e) { throw new IllegalArgumentException("bad number for " + key + ": " + v); }
+    }
+}
@@ -2,83 +2,257 @@ package server;
 
 import javax.swing.*;
 import java.io.*;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class ServerCore {
-    private final Consumer<String> log; // GUI 로그 콜백
-    private ServerSocket server;
+    // BLOCKING: 연결당 플랫폼 스레드 1개 (기존 방식)
+    // VIRTUAL : BLOCKING과 같은 코드 경로를 가상 스레드(Java 21) 위에서 실행
+    // NIO     : Selector 리액터 스레드 몇 개가 모든 연결 처리
+    // LOOPBACK: 소켓 없이 LoopbackTransport.shared()의 포트로만 받는다 (같은 JVM의 테스트/벤치마크, 가상 스레드)
+    public enum IoMode {
+        BLOCKING, VIRTUAL, NIO, LOOPBACK;
+
+        /** 다른 프로세스가 접속할 수 있는 모드 (GUI 선택지, ServerMain --mode). LOOPBACK은 같은 JVM 안에서만 쓴다 */
+        public static IoMode[] network() { return new IoMode[] { BLOCKING, VIRTUAL, NIO }; }
+    }
+
+    private final ServerConfig config;
+    private final Consumer<String> log; // 로그 콜백 (GUI 또는 AsyncLog)
+    private Acceptors acceptors;       // BLOCKING/VIRTUAL 모드
+    private NioServer nioServer;
     private volatile boolean running = false;
-    private Thread acceptThread;
+    private ExecutorService virtualExec; // VIRTUAL/LOOPBACK 모드 전용
+    private Consumer<Transport.Link> loopbackAccept; // LOOPBACK 모드: 등록한 리스너 (stop에서 해제)
+    private int loopbackPort;
+
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor(); // BLOCKING/VIRTUAL 송신
+    private final CylinderSource rng;
+    private final RoomRegistry rooms;
+    private final Matchmaker matchmaker;
+    private StatsServer stats;                 // stats.port > 0 일 때만
+    private ScheduledExecutorService statsDump; // stats.dump.sec > 0 일 때만
+    private volatile Journal journal;          // journal.dir이 있을 때 start()~stop() 동안
+    private volatile TimerWheel timers;        // 하트비트와 제한 시간, start()~stop() 동안
+    private ClusterNode cluster;               // cluster.directory가 있을 때 start()~stop() 동안
 
     public ServerCore(Consumer<String> logger) {
+        this(logger, ServerConfig.defaults());
+    }
+
+    public ServerCore(Consumer<String> logger, ServerConfig config) {
+        this.config = config;
         this.log = logger;
+        // 방은 서버보다 오래 살 수 있으므로 저널이 닫힌 뒤의 기록은 버린다
+        Journal.Appender appender = (config.journalDir == null) ? null : (b, len) -> {
+            Journal j = journal;
+            if (j != null) j.append(b, len);
+        };
+        this.rng = config.cylinderSource();
+        this.rooms = new RoomRegistry(logger, newRoomScheduler(config.roomThreads()), appender, rng, config.clusterNode);
+        this.matchmaker = new Matchmaker(logger, rooms);
+        matchmaker.setBotOpponent(config.botWaitSec * 1000L, config.botThinkMs);
+
+        // 이미 따로 세고 있는 값은 게이지로 노출만 한다 (서버가 여러 개면 마지막에 만든 것)
+        Metrics.gauge("rooms.created", rooms::roomsCreated);
+        Metrics.gauge("rooms.finished", rooms::roomsFinished);
+        Metrics.gauge("rooms.live", rooms::size);
+        Metrics.gauge("sessions", () -> rooms.sessions().size());
+        Metrics.gauge("matchmaker.queue", matchmaker::queueDepth);
+        Metrics.gauge("matchmaker.matches", matchmaker::matchesMade);
+        Metrics.gauge("matchmaker.max.wait.ms", matchmaker::maxTimeToMatchMillis);
+        Metrics.gauge("matchmaker.bot.matches", matchmaker::botMatchesMade);
+    }
+
+    // 모든 Room 액터가 공유하는 스케줄러. FIFO 모드 ForkJoinPool은 작업 큐가 락 없이 동작한다
+    private static ForkJoinPool newRoomScheduler(int n) {
+        return new ForkJoinPool(n, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("Room-" + t.getPoolIndex());
+            return t;
+        }, null, true);
+    }
+
+    public Matchmaker matchmaker() { return matchmaker; }
+    public RoomRegistry rooms() { return rooms; }
+
+    public void start(int port) throws IOException {
+        start(port, IoMode.BLOCKING);
+    }
+
+    /** 설정의 port / mode로 시작 */
+    public void start() throws IOException {
+        start(config.port, config.mode);
     }
 
-    public synchronized void start(int port) throws IOException {
+    public synchronized void start(int port, IoMode mode) throws IOException {
         if (running) { log.accept("[Server] already running"); return; }
-        server = new ServerSocket(port);
-        running = true;
-        log.accept("[Server] Listening on " + port);
+        if (config.journalDir != null && journal == null) {
+            journal = Journal.open(Path.of(config.journalDir), config.journalSegmentMb << 20, config.journalFlushMs);
+            log.accept("[Server] Journal -> " + config.journalDir);
+        }
+        log.accept("[Server] Cylinders: " + rng.describe()); // 이 시드로 모든 방의 탄창을 다시 만들 수 있다
+        if (config.traceSpans) Trace.enableSpans();
+        timers = new TimerWheel(config.timerTickMs);
+        rooms.setTimeouts(timers, config.readyTimeoutSec * 1000L, config.turnTimeoutSec * 1000L);
+        matchmaker.start();
+        startStats();
+        startCluster(port);
 
-        acceptThread = new Thread(this::acceptLoop, "AcceptLoop");
-        acceptThread.start();
+        if (mode == IoMode.NIO) {
+            int reactors = config.reactorThreads();
+            nioServer = new NioServer(log, h -> onHandshake(h, h.connection().remoteAddress()), config.outboundLimits(),
+                    timers, config.handshakeTimeoutMs);
+            String acc = nioServer.start(port, reactors, config.acceptBacklog, config.acceptors);
+            running = true;
+            log.accept("[Server] Listening on " + port + " (NIO, " + reactors + " reactors, " + acc + ")");
+            return;
+        }
+
+        if (mode == IoMode.LOOPBACK) {
+            virtualExec = Executors.newVirtualThreadPerTaskExecutor();
+            loopbackAccept = link -> {
+                Metrics.CONN_ACCEPTED.inc();
+                Trace.Accept span = Trace.begin(Trace.Accept::new);
+                spawn(() -> serveBlocking(link, span), "ClientHandler");
+            };
+            LoopbackTransport.shared().listen(port, loopbackAccept);
+            loopbackPort = port;
+            running = true;
+            log.accept("[Server] Listening on loopback " + port + " (in-process)");
+            return;
+        }
+
+        if (mode == IoMode.VIRTUAL) virtualExec = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+        try {
+            acceptors = new Acceptors(port, config.acceptBacklog, config.acceptors, this::handoff, timers, log);
+        } catch (IOException e) {
+            stop();
+            throw e;
+        }
+        String acc = acceptors.describe(config.acceptors, config.acceptBacklog);
+        log.accept("[Server] Listening on " + port + (mode == IoMode.VIRTUAL ? " (virtual threads, " : " (") + acc + ")");
     }
 
     public synchronized void stop() {
+        if (!running) return;
         running = false;
-        try {
-            if (server != null && !server.isClosed()) server.close();
-        } catch (IOException ignored) {}
+        if (acceptors != null) { acceptors.close(); acceptors = null; }
+        if (nioServer != null) { nioServer.stop(); nioServer = null; }
+        if (loopbackAccept != null) { LoopbackTransport.shared().unlisten(loopbackPort, loopbackAccept); loopbackAccept = null; }
+        if (virtualExec != null) { virtualExec.shutdown(); virtualExec = null; } // 진행 중인 게임은 끝까지 유지
+        matchmaker.stop();
+        if (cluster != null) { cluster.stop(); cluster = null; rooms.setCluster(null); }
+        if (stats != null) { stats.stop(); stats = null; }
+        if (statsDump != null) { statsDump.shutdownNow(); statsDump = null; }
+        if (journal != null) { journal.close(); journal = null; }
+        rooms.setTimeouts(null, 0, 0); // 남은 방은 제한 시간 없이 끝까지
+        if (timers != null) { timers.close(); timers = null; }
         log.accept("[Server] Stopped.");
     }
 
-    private void acceptLoop() {
+    private void startStats() throws IOException {
+        if (config.statsPort > 0 && stats == null) {
+            stats = new StatsServer(config.statsPort);
+            stats.start();
+            log.accept("[Server] Stats on http://127.0.0.1:" + stats.port() + "/stats");
+        }
+        if (config.statsDumpSec > 0 && statsDump == null) {
+            statsDump = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "StatsDump");
+                t.setDaemon(true);
+                return t;
+            });
+            statsDump.scheduleAtFixedRate(this::dumpStats, config.statsDumpSec, config.statsDumpSec, TimeUnit.SECONDS);
+        }
+    }
+
+    // 디렉터리에 노드로 등록. 부하 = 핸드셰이크를 마친 플레이어 수 (세션), 방 수
+    private void startCluster(int port) {
+        if (config.clusterDirectory == null || cluster != null) return;
+        cluster = new ClusterNode(config.clusterNode, config.clusterAdvertise, port, config.clusterDirectory,
+                config.clusterLoadMs, log, () -> rooms.sessions().size(), rooms::size);
+        rooms.setCluster(cluster);
+        cluster.start();
+        log.accept("[Server] Cluster node " + config.clusterNode + " -> directory " + config.clusterDirectory);
+    }
+
+    private void dumpStats() {
+        for (String line : Metrics.renderText().split("\n")) log.accept("[Stats] " + line);
+    }
+
+    // accept 스레드(Acceptors)에서: 핸드셰이크는 연결별 스레드로 넘긴다.
+    // 느리거나 말이 없는 클라이언트가 다른 접속을 막지 않는다
+    private void handoff(SocketChannel ch) throws IOException {
+        Trace.Accept span = Trace.begin(Trace.Accept::new);
+        Transport.Link link = TcpTransport.wrap(ch.socket()); // 블로킹 채널의 소켓 어댑터, TCP_NODELAY
+        spawn(() -> serveBlocking(link, span), "ClientHandler");
+    }
+
+    // accept: 이 연결의 Accept 구간 (스레드가 뜨기까지), 추적이 꺼져 있으면 null
+    private void serveBlocking(Transport.Link link, Trace.Accept accept) {
+        if (accept != null) accept.end(link.remote());
+        ClientHandler h;
+        long t0 = System.nanoTime();
+        Trace.Handshake span = Trace.begin(Trace.Handshake::new);
         try {
-            while (running) {
-                // 첫 번째 클라이언트
-                Socket s1 = server.accept();
-                String n1 = handshakeAndReadName(s1);
-                log.accept("[Server] P1 connected: " + n1 + " from " + s1.getRemoteSocketAddress());
-                sendLine(s1, Protocol.ROOM_STATUS + " WAITING 1/2");
-
-                // 두 번째 클라이언트
-                Socket s2 = server.accept();
-                String n2 = handshakeAndReadName(s2);
-                log.accept("[Server] P2 connected: " + n2 + " from " + s2.getRemoteSocketAddress());
-                sendLine(s2, Protocol.ROOM_STATUS + " WAITING 2/2");
-
-                // 핸들러 생성
-                ClientHandler p1 = new ClientHandler(s1, n1);
-                ClientHandler p2 = new ClientHandler(s2, n2);
-                Room room = new Room(p1, p2, n1, n2);
-
-                // 핸들러 스레드 시작
-                new Thread(p1, "P1-Handler").start();
-                new Thread(p2, "P2-Handler").start();
-
-                // 룸 준비 방송
-                room.announceCreatedAndReady();
-                log.accept("[Server] Room READY: " + n1 + " vs " + n2);
-            }
+            h = ClientHandler.handshake(link, config.handshakeTimeoutMs, writers, config.outboundLimits());
         } catch (IOException e) {
-            if (running) log.accept("[Server] accept error: " + e.getMessage());
-        } finally {
-            stop();
+            log.accept("[Server] handshake failed from " + link.remote() + ": " + e.getMessage());
+            link.close();
+            Metrics.HANDSHAKE_FAILED.inc();
+            Metrics.CONN_CLOSED.inc();
+            return;
         }
+        Metrics.HANDSHAKE_OK.inc();
+        Metrics.HANDSHAKE_TIME.record((System.nanoTime() - t0) / 1_000);
+        if (span != null) span.end(link.remote(), h.getNickname(), h.isBinary());
+        onHandshake(h, link.remote());
+        h.run(); // 이 스레드가 그대로 수신 루프가 된다 (끊기면 매칭 대기열에서도 자동 제외)
+    }
+
+    private void onHandshake(ClientHandler h, String from) {
+        h.setRegistry(rooms);
+        watch(h);
+        if (h.isResumeRequest()) { rooms.resume(h); return; }
+        log.accept("[Server] connected: " + h.getNickname() + " from " + from);
+        rooms.sessions().open(h);
+        matchmaker.enqueue(h);
     }
 
-    private static String handshakeAndReadName(Socket s) throws IOException {
-        BufferedReader in  = new BufferedReader(new InputStreamReader(s.getInputStream(), "UTF-8"));
-        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), "UTF-8"));
-        out.write(Protocol.HELLO + "\n"); out.flush();
-        String name = in.readLine();
-        return (name == null || name.isBlank()) ? "Player" : name.trim();
+    // ==== 하트비트 ====
+
+    // heartbeat.sec마다 확인: 그만큼 조용했으면 PING, idle.timeout.sec 넘게 아무것도 안 왔으면 끊는다.
+    // 연결마다 타이머 1개를 다시 거는 방식이라 메시지를 받을 때는 시각만 적고 타이머를 건드리지 않는다
+    private void watch(ClientHandler h) {
+        TimerWheel w = timers;
+        if (w != null && config.heartbeatSec > 0) w.schedule(config.heartbeatSec * 1000L, () -> checkAlive(h));
+    }
+
+    private void checkAlive(ClientHandler h) {
+        if (h.isClosed()) return;
+        long idle = h.idleMillis();
+        if (idle >= config.idleTimeoutSec * 1000L) {
+            Metrics.CONN_REAPED.inc();
+            log.accept("[Server] idle timeout: " + h.getNickname() + " (" + idle / 1000 + "s)");
+            h.close(); // 게임 중이었으면 onLeave → 세션은 남아 RESUME 가능, 턴 제한 시간이 기권 처리
+            return;
+        }
+        if (idle >= config.heartbeatSec * 1000L) h.send(Protocol.PING);
+        watch(h);
     }
 
-    private static void sendLine(Socket s, String line) throws IOException {
-        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), "UTF-8"));
-        out.write(line); out.write("\n"); out.flush();
+    private void spawn(Runnable r, String name) {
+        ExecutorService exec = virtualExec;
+        if (exec != null) exec.execute(r);
+        else new Thread(r, name).start();
     }
 }
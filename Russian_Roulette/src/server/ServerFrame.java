@@ -4,9 +4,13 @@ import javax.swing.*;
 import java.awt.*;
 
 public class ServerFrame extends JFrame {
+    private static final int MAX_LOG_LINES = 2000; // 로그 창에 남겨둘 최대 줄 수 (오래된 줄부터 지움)
+
     private final JTextField portField = new JTextField("7777", 8);
+    private final JComboBox<ServerCore.IoMode> modeBox = new JComboBox<>(ServerCore.IoMode.network());
     private final JTextArea logArea = new JTextArea(18, 60);
     private ServerCore core;
+    private AsyncLog log;
 
     public ServerFrame() {
         super("Server");
@@ -16,6 +20,8 @@ public class ServerFrame extends JFrame {
         JPanel north = new JPanel();
         north.add(new JLabel("Port:"));
         north.add(portField);
+        north.add(new JLabel("Mode:"));
+        north.add(modeBox);
         JButton startBtn = new JButton("Start");
         JButton stopBtn  = new JButton("Stop");
         north.add(startBtn);
@@ -35,18 +41,31 @@ public class ServerFrame extends JFrame {
     private void startServer() {
         try {
             int port = Integer.parseInt(portField.getText().trim());
-            core = new ServerCore(msg -> SwingUtilities.invokeLater(() -> logArea.append(msg + "\n")));
-            core.start(port);
-            logArea.append("[UI] Server started on " + port + "\n");
+            // 로그 줄마다 EDT에 넘기지 않고, AsyncLog가 모은 묶음을 한 번에 붙인다
+            if (log == null) log = new AsyncLog(8192, chunk -> SwingUtilities.invokeLater(() -> appendLog(chunk)));
+            core = new ServerCore(log);
+            ServerCore.IoMode mode = (ServerCore.IoMode) modeBox.getSelectedItem();
+            core.start(port, mode);
+            appendLog("[UI] Server started on " + port + " (" + mode + ")\n");
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Start failed: " + ex.getMessage());
         }
     }
 
+    // EDT 전용
+    private void appendLog(String text) {
+        logArea.append(text);
+        int over = logArea.getLineCount() - MAX_LOG_LINES;
+        if (over > 0) {
+            try { logArea.replaceRange("", 0, logArea.getLineStartOffset(over)); }
+            catch (javax.swing.text.BadLocationException ignored) {}
+        }
+    }
+
     private void stopServer() {
         try {
             if (core != null) core.stop();
-            logArea.append("[UI] Server stopped.\n");
+            appendLog("[UI] Server stopped.\n");
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Stop failed: " + ex.getMessage());
         }
@@ -0,0 +1,86 @@
+package server;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+/**
+ * 화면 없는 서버 실행 (컨테이너/원격 서버용). GUI 서버는 ServerGuiMain.
+ * 설정은 ServerConfig 참고. 로그는 AsyncLog를 거쳐 표준 출력(과 log.file)으로 나간다.
+ *
+ *   java -cp bin server.ServerMain 7777
+ *   java -cp bin server.ServerMain --mode=NIO --port=7777 --log.file=server.log
+ *   java -cp bin server.ServerMain --stats.port=9090 --stats.dump.sec=60   (curl 127.0.0.1:9090/stats)
+ *   java -cp bin server.ServerMain --journal.dir=journal                   (JournalReader로 재생)
+ *   java -cp bin server.ServerMain --cluster.directory=127.0.0.1:7700 --cluster.node=1   (Directory 참고)
+ */
+public class ServerMain {
+    public static void main(String[] args) {
+        ServerConfig cfg;
+        try {
+            cfg = ServerConfig.fromArgs(args);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("[Server] " + e.getMessage());
+            System.err.println("usage: ServerMain [port] [--config=file.properties] [--port=7777] [--mode=BLOCKING|VIRTUAL|NIO]"
+                    + " [--handshake.timeout.ms=10000] [--reactors=0] [--room.workers=0] [--acceptors=1] [--accept.backlog=1024]"
+                    + " [--outbound.max.lines=1024] [--outbound.max.bytes=262144] [--log.file=path] [--log.buffer=8192]"
+                    + " [--stats.port=0] [--stats.dump.sec=0]"
+                    + " [--journal.dir=path] [--journal.segment.mb=64] [--journal.flush.ms=20]"
+                    + " [--rng=SPLITTABLE|SECURE] [--rng.seed=n]"
+                    + " [--timer.tick.ms=100] [--heartbeat.sec=15] [--idle.timeout.sec=45] [--ready.timeout.sec=60] [--turn.timeout.sec=30]"
+                    + " [--cluster.directory=host:port --cluster.node=n] [--cluster.advertise=127.0.0.1] [--cluster.load.ms=1000]"
+                    + " [--bot.wait.sec=20] [--bot.think.ms=700] [--trace.spans=false]");
+            System.exit(2);
+            return;
+        }
+
+        OutputStream file = null;
+        try {
+            if (cfg.logFile != null) file = new FileOutputStream(cfg.logFile, true);
+        } catch (IOException e) {
+            System.err.println("[Server] cannot open log file: " + e.getMessage());
+            System.exit(2);
+        }
+        AsyncLog log = new AsyncLog(cfg.logBuffer, writer(file));
+
+        ServerCore core = new ServerCore(log, cfg);
+        try {
+            log.accept("[Server] config: " + cfg);
+            core.start();
+        } catch (IOException e) {
+            log.accept("[Server] start failed: " + e.getMessage());
+            log.close();
+            System.exit(1);
+        }
+
+        // Ctrl+C / docker stop
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            core.stop();
+            log.close();
+            stopped.countDown();
+        }, "ServerShutdown"));
+
+        // 종료 신호까지 main이 기다린다 (AcceptLoop-i, 리액터 같은 서버 스레드가 데몬인지에 기대지 않는다)
+        try { stopped.await(); } catch (InterruptedException ignored) {}
+    }
+
+    // 로그 스레드에서만 호출된다
+    private static Consumer<String> writer(OutputStream file) {
+        PrintStream stdout = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        return chunk -> {
+            stdout.print(chunk);
+            stdout.flush();
+            if (file != null) {
+                try {
+                    file.write(chunk.getBytes(StandardCharsets.UTF_8));
+                    file.flush();
+                } catch (IOException ignored) {}
+            }
+        };
+    }
+}
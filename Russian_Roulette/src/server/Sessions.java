@@ -0,0 +1,42 @@
+package server;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 재접속용 세션 토큰 → 현재 연결(ClientHandler).
+ * 핸드셰이크 때 발급하고, 대기열/로비에서 끊기거나 방이 끝나면 지운다.
+ * 게임 중에 끊긴 연결은 남겨 두어 RESUME으로 새 소켓이 그 자리를 이어받는다.
+ */
+final class Sessions {
+    private final ConcurrentHashMap<String, ClientHandler> byToken = new ConcurrentHashMap<>();
+    private final SecureRandom rnd = new SecureRandom(); // 토큰을 추측해 남의 자리에 들어오지 못하도록
+
+    /** 새 토큰을 발급해 h에 붙이고 SESSION 줄을 보낸다 */
+    void open(ClientHandler h) {
+        byte[] b = new byte[16];
+        rnd.nextBytes(b);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+        h.setSession(token);
+        byToken.put(token, h);
+        h.send(Protocol.SESSION + " " + token);
+    }
+
+    ClientHandler find(String token) { return byToken.get(token); }
+
+    /** old의 토큰을 새 연결 h가 이어받는다. 그 사이에 다른 연결이 가져갔으면 false */
+    boolean transfer(ClientHandler old, ClientHandler h) {
+        String token = old.sessionToken();
+        if (token == null || !byToken.replace(token, old, h)) return false;
+        h.setSession(token);
+        return true;
+    }
+
+    void close(ClientHandler h) {
+        String token = h.sessionToken();
+        if (token != null) byToken.remove(token, h);
+    }
+
+    int size() { return byToken.size(); }
+}
@@ -0,0 +1,183 @@
+package server;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 규칙 밸런스용 몬테카를로 시뮬레이터. GameEngine으로 서버 없이 게임을 수억 판 돌려
+ * 승률, 게임 길이 분포, 선공 이점을 본다. 규칙(체력, 탄창 칸 수, 실탄 확률, 공탄 턴 유지)과
+ * 양쪽 전략을 바꿔 가며 비교한다.
+ *
+ *   java -cp bin server.Simulator --games=100000000
+ *   java -cp bin server.Simulator --hp=3 --chambers=4 --keep-turn=false --p1=OPTIMAL --p2=COUNT --seed=1
+ *
+ * 판을 CHUNK개씩 묶어 ForkJoinPool에서 병렬로 돌리고, 묶음마다 시드를 미리 나눠 주므로
+ * 같은 시드면 스레드 수와 상관없이 결과가 같다. 한 판 안에서는 객체를 만들지 않는다 (상태는 long 하나).
+ */
+public final class Simulator {
+    private static final int CHUNK = 1 << 20;
+    private static final int MAX_SHOTS = 4096;  // 이보다 길면 끝나지 않은 판으로 센다 (예: 둘 다 SELF만 하는 전략)
+    private static final int HIST = 256;        // 길이 분포는 여기까지 칸마다, 넘으면 마지막 칸
+
+    /**
+     * 플레이어 전략: 자기 턴에 조준을 고른다. state는 RoomState, me는 1 또는 2, random은 이번 수 전용 난수.
+     * 여러 스레드가 같이 부르므로 상태를 갖지 않아야 하고, 객체를 만들지 않아야 한다.
+     */
+    @FunctionalInterface
+    interface Strategy {
+        boolean aimSelf(long state, int me, long random);
+    }
+
+    /** 기본 전략들 */
+    static Strategy strategy(String name, GameEngine.Rules rules) {
+        switch (name.toUpperCase(Locale.ROOT)) {
+            case "ENEMY":  return (s, me, rnd) -> false;
+            case "SELF":   return (s, me, rnd) -> true;
+            case "RANDOM": return (s, me, rnd) -> rnd < 0;
+            case "COUNT":  return (s, me, rnd) -> RoomState.blanksLeft(s) > RoomState.bulletsLeft(s); // 공탄이 더 많으면 자기에게
+            case "OPTIMAL": {
+                BotPolicy p = rules.equals(GameEngine.Rules.STANDARD) ? BotPolicy.STANDARD : new BotPolicy(rules);
+                return (s, me, rnd) -> p.aimSelf(RoomState.hp(s, me), RoomState.hp(s, 3 - me),
+                        RoomState.bulletsLeft(s), RoomState.blanksLeft(s));
+            }
+            default: throw new IllegalArgumentException("unknown strategy: " + name + " (ENEMY|SELF|RANDOM|COUNT|OPTIMAL)");
+        }
+    }
+
+    /** 묶음 하나 (또는 합친 전체)의 결과 */
+    static final class Stats {
+        long games, p1Wins, p2Wins, draws, unfinished, shots, reloads;
+        final long[] length = new long[HIST + 1]; // 판 길이 (발사 수) 분포
+
+        void add(Stats o) {
+            games += o.games; p1Wins += o.p1Wins; p2Wins += o.p2Wins; draws += o.draws;
+            unfinished += o.unfinished; shots += o.shots; reloads += o.reloads;
+            for (int i = 0; i <= HIST; i++) length[i] += o.length[i];
+        }
+
+        /** 길이 분포의 q 분위수 (HIST 이상은 HIST) */
+        int lengthPercentile(double q) {
+            long target = (long) Math.ceil(q * games), seen = 0;
+            for (int i = 0; i <= HIST; i++) {
+                seen += length[i];
+                if (seen >= target && seen > 0) return i;
+            }
+            return HIST;
+        }
+    }
+
+    private final GameEngine.Rules rules;
+    private final Strategy p1, p2;
+
+    Simulator(GameEngine.Rules rules, Strategy p1, Strategy p2) {
+        this.rules = rules;
+        this.p1 = p1;
+        this.p2 = p2;
+    }
+
+    /** games판을 threads개 스레드로 (0이면 코어 수) */
+    Stats run(long games, int threads, long seed) throws InterruptedException {
+        int chunks = (int) ((games + CHUNK - 1) / CHUNK);
+        long[] seeds = new long[chunks];
+        SplittableRandom master = new SplittableRandom(seed);
+        for (int i = 0; i < chunks; i++) seeds[i] = master.nextLong();
+
+        ForkJoinPool pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        try {
+            // 갈래마다 새 Stats에 모으고 마지막에 합친다 (정수 합이라 합치는 순서와 상관없이 같다)
+            return pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .collect(Stats::new,
+                            (st, i) -> st.add(chunk(Math.min(CHUNK, games - (long) i * CHUNK), new SplittableRandom(seeds[i]))),
+                            Stats::add)).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // 한 묶음: 판마다 새 상태 long 하나로 끝까지
+    private Stats chunk(long games, SplittableRandom rnd) {
+        Stats st = new Stats();
+        GameEngine.Rules r = rules;
+        for (long g = 0; g < games; g++) {
+            long s = GameEngine.initial(r);
+            int shots = 0;
+            while (!RoomState.gameOver(s) && shots < MAX_SHOTS) {
+                if (RoomState.empty(s)) {
+                    s = GameEngine.reload(r, s, GameEngine.cylinder(r, rnd));
+                    st.reloads++;
+                }
+                int me = RoomState.turn(s);
+                boolean self = (me == 1 ? p1 : p2).aimSelf(s, me, rnd.nextLong());
+                s = GameEngine.fire(r, RoomState.withAim(s, me, self));
+                shots++;
+            }
+            st.games++;
+            st.shots += shots;
+            st.length[Math.min(shots, HIST)]++;
+            if (!RoomState.gameOver(s)) { st.unfinished++; continue; }
+            switch (GameEngine.winner(s)) {
+                case 1 -> st.p1Wins++;
+                case 2 -> st.p2Wins++;
+                default -> st.draws++;
+            }
+        }
+        return st;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long games = 10_000_000, seed = System.nanoTime();
+        int threads = 0, hp = RoomState.MAX_HP, chambers = RoomState.CHAMBERS;
+        double odds = 0.5;
+        boolean keepTurn = true;
+        String s1 = "OPTIMAL", s2 = "OPTIMAL";
+        for (String a : args) {
+            String v = a.contains("=") ? a.substring(a.indexOf('=') + 1) : "";
+            if (a.startsWith("--games="))            games = Long.parseLong(v);
+            else if (a.startsWith("--threads="))     threads = Integer.parseInt(v);
+            else if (a.startsWith("--seed="))        seed = Long.parseLong(v);
+            else if (a.startsWith("--hp="))          hp = Integer.parseInt(v);
+            else if (a.startsWith("--chambers="))    chambers = Integer.parseInt(v);
+            else if (a.startsWith("--bullet-odds=")) odds = Double.parseDouble(v);
+            else if (a.startsWith("--keep-turn="))   keepTurn = Boolean.parseBoolean(v);
+            else if (a.startsWith("--p1="))          s1 = v;
+            else if (a.startsWith("--p2="))          s2 = v;
+            else {
+                System.err.println("usage: Simulator [--games=10000000] [--threads=0] [--seed=n] [--hp=5] [--chambers=6]"
+                        + " [--bullet-odds=0.5] [--keep-turn=true] [--p1=OPTIMAL] [--p2=OPTIMAL]   (ENEMY|SELF|RANDOM|COUNT|OPTIMAL)");
+                System.exit(2);
+            }
+        }
+
+        GameEngine.Rules rules = new GameEngine.Rules(hp, chambers, keepTurn, odds);
+        Simulator sim = new Simulator(rules, strategy(s1, rules), strategy(s2, rules));
+        System.out.printf(Locale.ROOT, "# %,d games, %s, P1=%s P2=%s, seed=%d%n", games, rules, s1.toUpperCase(Locale.ROOT), s2.toUpperCase(Locale.ROOT), seed);
+
+        long t0 = System.nanoTime();
+        Stats st = sim.run(games, threads, seed);
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        double n = st.games;
+        double w1 = st.p1Wins / n, w2 = st.p2Wins / n;
+        double ci = 1.96 * Math.sqrt(w1 * (1 - w1) / n); // 95% 신뢰구간 반폭
+        System.out.printf(Locale.ROOT, "P1 wins   %7.3f%%  (+/- %.3f)%n", 100 * w1, 100 * ci);
+        System.out.printf(Locale.ROOT, "P2 wins   %7.3f%%%n", 100 * w2);
+        if (st.draws > 0 || st.unfinished > 0) {
+            System.out.printf(Locale.ROOT, "draws     %7.3f%%   unfinished (> %d shots) %7.3f%%%n", 100 * st.draws / n, MAX_SHOTS, 100 * st.unfinished / n);
+        }
+        System.out.printf(Locale.ROOT, "P1 edge   %+7.3f%%p (P1 moves first; with the same strategy on both sides this is the first-mover advantage)%n", 100 * (w1 - w2));
+        System.out.printf(Locale.ROOT, "length (shots)    mean %.2f  p50 %d  p90 %d  p99 %d   reloads/game %.2f%n",
+                st.shots / n, st.lengthPercentile(0.50), st.lengthPercentile(0.90), st.lengthPercentile(0.99), st.reloads / n);
+        StringBuilder hist = new StringBuilder("length histogram ");
+        int p99 = st.lengthPercentile(0.99);
+        for (int i = 1; i <= p99; i++) {
+            if (st.length[i] > 0) hist.append(String.format(Locale.ROOT, " %d:%.2f%%", i, 100 * st.length[i] / n));
+        }
+        System.out.println(hist);
+        System.out.printf(Locale.ROOT, "# %.2f s, %,.0f games/s%n", secs, n / secs);
+    }
+}
@@ -0,0 +1,52 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Metrics를 HTTP로 보여주는 작은 통계 서버 (루프백 주소에만 열린다).
+ *
+ *   curl http://127.0.0.1:9090/stats        사람이 읽는 텍스트
+ *   curl http://127.0.0.1:9090/stats.json   JSON
+ *
+ * 요청은 전용 스레드 하나에서 처리하므로 게임 스레드에는 영향이 없다.
+ */
+final class StatsServer {
+    private final HttpServer http;
+
+    StatsServer(int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/stats", ex -> reply(ex, "text/plain", Metrics::renderText));
+        http.createContext("/stats.json", ex -> reply(ex, "application/json", Metrics::renderJson));
+        http.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "StatsServer");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    void start() { http.start(); }
+    void stop()  { http.stop(0); }
+    int port()   { return http.getAddress().getPort(); }
+
+    private static void reply(HttpExchange ex, String type, Supplier<String> body) throws IOException {
+        try (ex) {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] b = body.get().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream os = ex.getResponseBody()) { os.write(b); }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/** java.net.Socket 그대로 */
+public final class TcpTransport implements Transport {
+    public static final TcpTransport INSTANCE = new TcpTransport();
+
+    private TcpTransport() {}
+
+    @Override
+    public Link connect(String host, int port) throws IOException {
+        return wrap(new Socket(host, port));
+    }
+
+    /** 이미 연결된 소켓 (서버의 accept). 작은 줄 여러 개가 Nagle + delayed ACK로 밀리지 않도록 TCP_NODELAY */
+    static Link wrap(Socket s) throws IOException {
+        s.setTcpNoDelay(true);
+        return new Link() {
+            @Override public InputStream in() throws IOException { return s.getInputStream(); }
+            @Override public OutputStream out() throws IOException { return s.getOutputStream(); }
+            @Override public void setReadTimeout(int ms) throws IOException { s.setSoTimeout(ms); }
+            @Override public String remote() { return String.valueOf(s.getRemoteSocketAddress()); }
+            @Override public void close() {
+                try { s.close(); } catch (IOException ignored) {}
+            }
+        };
+    }
+}
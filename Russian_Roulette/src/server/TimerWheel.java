@@ -0,0 +1,125 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 계층형 타이밍 휠 (하트비트, 핸드셰이크/READY/턴 제한 시간).
+ * 슬롯 64개짜리 바퀴 4단 = 64^4 틱 (틱 100ms면 약 19일)까지 담고,
+ * 등록/취소/만료 모두 타이머 개수와 상관없이 O(1)이다 (연결 10만 개여도 틱마다 보는 건 슬롯 하나).
+ *
+ * 스레드 1개("TimerWheel")가 틱을 돌리며 만료된 작업을 그 자리에서 실행하므로
+ * 작업은 짧아야 한다 (Room 액터에 post, 연결 닫기 요청, PING 한 줄 정도).
+ * schedule()은 어느 스레드에서든 호출할 수 있다 (큐에 넣고 다음 틱에 휠에 꽂는다).
+ */
+final class TimerWheel implements AutoCloseable {
+    private static final int BITS = 6, SLOTS = 1 << BITS, MASK = SLOTS - 1, LEVELS = 4;
+    private static final long SPAN = 1L << (BITS * LEVELS); // 담을 수 있는 최대 틱 수
+
+    /** 등록한 타이머 1개. cancel()은 표시만 하고, 슬롯 차례가 오면 버린다 */
+    static final class Timeout {
+        private final long deadline; // 절대 틱
+        private final Runnable task;
+        private Timeout next;        // 슬롯 내 연결 리스트 (휠 스레드 전용)
+        private volatile boolean cancelled;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        void cancel() { cancelled = true; }
+    }
+
+    private final long tickNanos;
+    private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile long now = 0; // 지금까지 처리한 틱
+    private volatile boolean running = true;
+
+    private static final Metrics.Counter FIRED  = Metrics.counter("timer.fired");
+    private static final Metrics.Counter ERRORS = Metrics.counter("timer.errors");
+
+    TimerWheel(long tickMs) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        this.thread = new Thread(this::run, "TimerWheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** delayMs 뒤에 (틱 단위로 올림) 휠 스레드에서 task 실행 */
+    Timeout schedule(long delayMs, Runnable task) {
+        long ticks = (TimeUnit.MILLISECONDS.toNanos(delayMs) + tickNanos - 1) / tickNanos;
+        Timeout t = new Timeout(now + Math.max(1, ticks), task);
+        incoming.add(t);
+        return t;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        while (running) {
+            long due = (System.nanoTime() - start) / tickNanos; // 밀렸으면 여러 틱을 한 번에 따라잡는다
+            while (now < due) tick();
+            LockSupport.parkNanos(start + (now + 1) * tickNanos - System.nanoTime());
+        }
+    }
+
+    private void tick() {
+        Timeout t;
+        while ((t = incoming.poll()) != null) place(t);
+        long n = now + 1;
+        now = n;
+        // 윗단부터: 이번 틱에 구간이 시작되는 슬롯을 아랫단으로 내린다
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((n & ((1L << (BITS * level)) - 1)) == 0) {
+                int slot = (int) (n >>> (BITS * level)) & MASK;
+                Timeout list = wheel[level][slot];
+                wheel[level][slot] = null;
+                while (list != null) {
+                    Timeout next = list.next;
+                    place(list);
+                    list = next;
+                }
+            }
+        }
+        Timeout list = wheel[0][(int) n & MASK];
+        wheel[0][(int) n & MASK] = null;
+        while (list != null) {
+            Timeout next = list.next;
+            if (list.deadline <= n) expire(list);
+            else place(list); // SPAN보다 먼 타이머가 한 바퀴 돌아온 경우
+            list = next;
+        }
+    }
+
+    // 남은 틱 수로 단을 고른다. 단 L의 슬롯 구간이 시작될 때 아랫단으로 내려가므로 늦게 실행되는 일은 없다
+    private void place(Timeout t) {
+        if (t.cancelled) return;
+        long delta = t.deadline - now;
+        if (delta <= 0) { expire(t); return; }
+        long at = (delta < SPAN) ? t.deadline : now + SPAN - 1; // 너무 먼 타이머는 맨 윗단 끝에 두고 다시 꽂는다
+        int level = Math.min(LEVELS - 1, (63 - Long.numberOfLeadingZeros(at - now)) / BITS);
+        int slot = (int) (at >>> (BITS * level)) & MASK;
+        t.next = wheel[level][slot];
+        wheel[level][slot] = t;
+    }
+
+    private void expire(Timeout t) {
+        if (t.cancelled) return;
+        FIRED.inc();
+        try {
+            t.task.run();
+        } catch (RuntimeException e) {
+            ERRORS.inc(); // 작업 하나의 오류로 휠이 멈추지 않도록
+        }
+    }
+}
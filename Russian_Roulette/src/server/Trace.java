@@ -0,0 +1,191 @@
+package server;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * 매치 수명 추적: 접속 → 핸드셰이크 → 매칭 → 방 생성 → READY 대기 → 조준/발사 → 방송 쓰기.
+ * 구간마다 JFR 커스텀 이벤트(roulette.*)가 하나씩 나오고, 같은 구간이 span 히스토그램(Metrics의 span.*)에도 쌓인다.
+ *
+ *   java -XX:StartFlightRecording=filename=rr.jfr -cp bin server.ServerMain
+ *   jfr print --events roulette.Fire rr.jfr          (jfr summary rr.jfr, 또는 JMC에서 방/플레이어별로)
+ *   java -cp bin server.ServerMain --trace.spans=true  (JFR 없이 /stats에서 구간별 분포만)
+ *
+ * 쓰는 쪽은 begin()으로 열고, 구간이 끝나면 null이 아닐 때만 그 이벤트의 end(...)로 방/플레이어를 붙여 닫는다.
+ * JFR 녹화도 span도 꺼져 있으면 begin()은 volatile 읽기 하나로 null을 돌려주고 객체를 만들지 않는다.
+ * 켜져 있으면 구간마다 이벤트 객체 하나. 스택 트레이스는 남기지 않는다.
+ */
+public final class Trace {
+
+    /** 구간 종류 (span 히스토그램 이름: span.xxx, 마이크로초) */
+    public enum Kind {
+        ACCEPT("accept"), HANDSHAKE("handshake"), PAIR("pair"), ROOM_CREATE("room.create"),
+        READY_WAIT("ready.wait"), AIM("aim"), FIRE("fire"), WRITE("write");
+
+        public final String label;
+        private volatile Metrics.Histogram hist; // enableSpans() 전에는 null (/stats에 빈 항목을 만들지 않는다)
+
+        Kind(String label) { this.label = label; }
+
+        public Metrics.Histogram histogram() {
+            Metrics.Histogram h = hist;
+            if (h == null) hist = h = Metrics.histogram("span." + label, "us");
+            return h;
+        }
+    }
+
+    private static volatile boolean spans;     // trace.spans
+    private static volatile boolean recording; // JFR 녹화가 하나라도 돌고 있다
+    private static volatile boolean active;    // spans || recording (begin()은 이것만 본다)
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override public void recordingStateChanged(Recording r) { refresh(); }
+        });
+        // -XX:StartFlightRecording이면 이 클래스가 로드되기 전에 이미 돌고 있다 (초기화 전이면 건드리지 않는다)
+        if (FlightRecorder.isInitialized()) refresh();
+    }
+
+    private Trace() {}
+
+    /** span 히스토그램을 켠다 (trace.spans, LoadGenerator --local) */
+    public static void enableSpans() {
+        for (Kind k : Kind.values()) k.histogram();
+        spans = true;
+        active = true;
+    }
+
+    private static void refresh() {
+        boolean on = false;
+        for (Recording r : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (r.getState() == RecordingState.RUNNING) { on = true; break; }
+        }
+        recording = on;
+        active = recording || spans;
+    }
+
+    /** 구간 시작. 추적이 꺼져 있으면 null */
+    static <S extends Span> S begin(Supplier<S> kind) {
+        if (!active) return null;
+        S s = kind.get();
+        s.startNanos = System.nanoTime();
+        s.begin();
+        return s;
+    }
+
+    // ==== JFR 이벤트 ====
+
+    /** 모든 구간의 공통 태그. 방이 아직 없으면 room=0 */
+    @Category({ "Russian Roulette", "Match" })
+    @StackTrace(false)
+    abstract static class Span extends Event {
+        @Label("Room") long room;
+        @Label("Player") String player;
+        transient long startNanos;
+
+        abstract Kind kind();
+
+        final void finish(long room, String player) {
+            end();
+            long nanos = System.nanoTime() - startNanos;
+            if (spans) kind().histogram().record(nanos / 1_000);
+            if (shouldCommit()) {
+                this.room = room;
+                this.player = player;
+                commit();
+            }
+        }
+    }
+
+    @Name("roulette.Accept") @Label("Accept")
+    @Description("accept() 반환부터 연결 전용 스레드가 핸드셰이크를 시작할 때까지")
+    static final class Accept extends Span {
+        @Override Kind kind() { return Kind.ACCEPT; }
+        void end(String remote) { finish(0, remote); }
+    }
+
+    @Name("roulette.Handshake") @Label("Handshake")
+    @Description("HELLO 송신부터 닉네임 (또는 HELLO_BIN) 수신까지")
+    static final class Handshake extends Span {
+        @Label("Remote") String remote;
+        @Label("Binary") boolean binary;
+        @Override Kind kind() { return Kind.HANDSHAKE; }
+        void end(String remote, String player, boolean binary) {
+            this.remote = remote;
+            this.binary = binary;
+            finish(0, player);
+        }
+    }
+
+    @Name("roulette.Pair") @Label("Pairing")
+    @Description("매칭 대기열에 들어간 뒤 상대와 방이 정해질 때까지")
+    static final class Pair extends Span {
+        @Label("Opponent") String opponent;
+        @Override Kind kind() { return Kind.PAIR; }
+        void end(long room, String player, String opponent) {
+            this.opponent = opponent;
+            finish(room, player);
+        }
+    }
+
+    @Name("roulette.RoomCreate") @Label("Room Create")
+    @Description("방 번호 발급, 첫 탄창, 저널 기록, 레지스트리 등록")
+    static final class RoomCreate extends Span {
+        @Label("Opponent") String opponent;
+        @Override Kind kind() { return Kind.ROOM_CREATE; }
+        void end(long room, String player, String opponent) {
+            this.opponent = opponent;
+            finish(room, player);
+        }
+    }
+
+    @Name("roulette.ReadyWait") @Label("Ready Wait")
+    @Description("ENTER_ROOM 방송부터 GAME_START (첫 TURN) 또는 READY 제한 시간 만료까지")
+    static final class ReadyWait extends Span {
+        @Label("Started") boolean started;
+        @Override Kind kind() { return Kind.READY_WAIT; }
+        void end(long room, String player, boolean started) {
+            this.started = started;
+            finish(room, player);
+        }
+    }
+
+    @Name("roulette.Aim") @Label("Aim")
+    @Description("Room 액터의 AIM 처리 (상태 변경 + AIM_UPDATE 쌓기)")
+    static final class Aim extends Span {
+        @Label("Self") boolean self;
+        @Override Kind kind() { return Kind.AIM; }
+        void end(long room, String player, boolean self) {
+            this.self = self;
+            finish(room, player);
+        }
+    }
+
+    @Name("roulette.Fire") @Label("Fire")
+    @Description("Room 액터의 FIRE 처리 (판정, 재장전, 방송 쌓기)")
+    static final class Fire extends Span {
+        @Override Kind kind() { return Kind.FIRE; }
+        void end(long room, String player) { finish(room, player); }
+    }
+
+    @Name("roulette.Write") @Label("Broadcast Write")
+    @Description("연결 하나의 송신 대기열을 합쳐 한 번에 쓰기 (소켓, NIO 채널 또는 파이프)")
+    static final class Write extends Span {
+        @Label("Bytes") int bytes;
+        @Override Kind kind() { return Kind.WRITE; }
+        void end(long room, String player, int bytes) {
+            this.bytes = bytes;
+            finish(room, player);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 바이트 스트림 연결을 만드는 방법. 줄/프레임 Protocol은 그 위에서 똑같이 돈다.
+ *   TcpTransport      : 실제 소켓 (기본)
+ *   LoopbackTransport : 같은 JVM 안의 메모리 파이프 (커널 네트워크 없이 통합 테스트/부하 벤치마크)
+ * 서버 쪽은 ServerCore의 BLOCKING/VIRTUAL 모드가 TCP 연결을, LOOPBACK 모드가 파이프 연결을 받아
+ * 같은 ClientHandler 수신 루프로 처리한다 (NIO 모드는 Selector가 필요하므로 TCP 전용).
+ */
+public interface Transport {
+
+    /** 연결 하나의 양방향 스트림 */
+    interface Link extends Closeable {
+        InputStream in() throws IOException;
+        OutputStream out() throws IOException;
+        /** 읽기 제한 시간 (0 = 무제한). 넘기면 read()가 SocketTimeoutException */
+        void setReadTimeout(int ms) throws IOException;
+        /** 로그용 상대 주소 */
+        String remote();
+        @Override void close();
+    }
+
+    /** host:port에 접속 (클라이언트 쪽) */
+    Link connect(String host, int port) throws IOException;
+}